@@ -67,6 +67,10 @@ public final class Constants {
     public static final int kShooterBottom = 49;
 
     public static final int kPowerDistributionHub = 50;
+
+    // Rates for status signals read once per loop and for resending control requests
+    public static final double kStatusUpdateFreqHz = 50.0;
+    public static final double kControlUpdateFreqHz = 50.0;
   }
 
   public static final class RobotConstants {
@@ -75,10 +79,26 @@ public final class Constants {
         33.0; // why do we need a +1 buffer? J-Burnett
   }
 
+  public static final class PowerConstants {
+    // The hub is read on a background thread at this rate, not every loop
+    public static final double kPollRateHz = 10.0;
+
+    // Output governor. Outputs are scaled down linearly from kGovernorStartVolts to
+    // kGovernorMinVolts, which is kept above the roboRIO 2 brownout voltage (6.75 V).
+    public static final double kGovernorStartVolts = 9.0;
+    public static final double kGovernorMinVolts = 7.5;
+    public static final double kMaxTotalCurrentAmps = 250.0;
+    public static final double kMinOutputScale = 0.3;
+    public static final double kOutputScaleRecoveryPerSec = 1.0;
+  }
+
   public static final class DriveConstants {
     public static final double kMAX_LINEAR_SPEED = 4.8;
     public static final double kTRACK_WIDTH_X = 0.5969; // 23.5in
     public static final double kTRACK_WIDTH_Y = 0.5969;
+    public static final double kODOMETRY_FREQUENCY = 250.0; // Hz, sampled on odometry thread
+    public static final double kMAX_MODULE_ACCELERATION = 8.0; // m/s^2, TODO: tune
+    public static final double kMAX_AZIMUTH_VELOCITY = 4.0 * Math.PI; // rad/s, TODO: tune
 
     public static final double lowGearScaler = 0.6;
   }
@@ -102,6 +122,9 @@ public final class Constants {
     public static final double kTurningD = 0.12;
     public static final double kTurningFF = 0.0;
 
+    // Run the drive velocity and turn position loops on the Talons at 1 kHz instead of on the RIO
+    public static final boolean kUseOnboardControl = true;
+
     public static final IdleMode kDrivingMotorIdleMode = IdleMode.kBrake;
     public static final IdleMode kTurningMotorIdleMode = IdleMode.kBrake;
 
@@ -140,6 +163,12 @@ public final class Constants {
     public static double kDigestRPM = 1500;
     public static double kPoopRPM;
     public static double kVomitDelay;
+
+    // Rev 2m distance sensor note detection
+    public static final double kNoteSensorPeriodSecs = 0.05; // Default measurement period
+    public static final double kNoteSensorStaleSecs = 0.25;
+    public static final double kNoteRangeInches = 10.0;
+    public static final double kNoteDebounceSecs = 0.06;
   }
 
   public static final class IndexerConstants {
@@ -160,10 +189,41 @@ public final class Constants {
 
     public static final double kCurrentLimit = 35; // amps
 
-    public static double kP = 1.5;
+    // Feedforward volts per RPM from the Falcon 500 free speed at 12 volts, a higher kV would ask
+    // for more than 12 volts at the shooting speed
+    public static final double kV = 12.0 / 6380.0;
+    public static double kP = 0.002; // volts per RPM of error
     public static double kD = 0.0;
 
+    public static final double kAtSpeedToleranceRPM = 100.0;
+    public static final double kAtSpeedDwellSecs = 0.1;
+
+    // Longest wait for the flywheel to reach speed before feeding anyway
     public static double shootRampUpTimeSecs = 2.5;
+
+    // Shot tables against distance to the speaker. The angles follow the old fitted curve
+    // -0.25 * ln(1882 * (d - 0.3)) + 2.55 radians. TODO: measure speeds and times of flight
+    public static final double[] kShotDistancesMeters = {
+      0.75, 1.0, 1.5, 2.0, 2.5, 3.0, 3.5, 4.0, 4.5, 5.0, 5.5, 6.0
+    };
+    public static final double[] kShotAnglesDeg = {
+      49.54, 43.21, 35.49, 30.5, 26.81, 23.87, 21.44, 19.36, 17.54, 15.93, 14.49, 13.17
+    };
+    public static final double[] kShotRPMs = {
+      2500, 2500, 2500, 2500, 2500, 2500, 2500, 2500, 2500, 2500, 2500, 2500
+    };
+    public static final double[] kShotTimesOfFlightSecs = {
+      0.144, 0.175, 0.237, 0.3, 0.362, 0.425, 0.487, 0.55, 0.613, 0.675, 0.738, 0.8
+    };
+  }
+
+  public static final class SuperstructureConstants {
+    // Arm angle to return to once the note is fed
+    public static final double kStowArmAngleDeg = 30.0;
+    // Keep feeding this long after the note leaves the intake sensor
+    public static final double kFeedClearSecs = 0.25;
+    // Give up feeding after this long, e.g. if the sensor never clears
+    public static final double kFeedTimeoutSecs = 2.0;
   }
 
   public static final class AutoConstants {
@@ -178,10 +238,23 @@ public final class Constants {
   }
 
   public static final class VisionConstants {
+    public static final String cameraOneName = "Arducam_OV2311_USB_Camera (1) (2) (3) (4)";
+    public static final String cameraTwoName = "Arducam_OV2311_USB_Camera"; // TODO: check name
+    // Camera two's name and mounting are not measured yet, and wrong extrinsics would pull the
+    // fused pose off. Enable once they are checked.
+    public static final boolean useCameraTwo = false;
+
     // both of these are the translation of the two cameras from the center of the bot
     // need to check which camera is - and which is +
     public static Translation2d cameraOnePosition = new Translation2d(-0.3, -0.3);
     public static Translation2d cameraTwoPosition = new Translation2d(-0.3, 0.3);
     public static double cameraOneAngle = Units.degreesToRadians(45);
+    public static double cameraTwoAngle = -cameraOneAngle; // TODO: check, assumed mirrored
+    public static double cameraHeightMeters = 0.25; // TODO: measure
+
+    // Pose observation filtering
+    public static final double maxAmbiguity = 0.2;
+    public static final double xyStdDevCoefficient = 0.02; // meters per meter^2 of tag distance
+    public static final double thetaStdDevCoefficient = 0.04; // radians per meter^2
   }
 }
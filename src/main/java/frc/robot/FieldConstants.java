@@ -36,6 +36,10 @@ public final class FieldConstants {
           fieldWidth); // turns out we did the math wrong, it's in the document with all the
   // drawings
 
+  /** Center of the blue alliance's source, between AprilTags 1 and 2 */
+  public static final Translation2d sourceCenter =
+      new Translation2d(Units.inchesToMeters(615.445), Units.inchesToMeters(22.235));
+
   /** Staging locations for each note */
   public static final class StagingLocations {
     public static final double centerlineX = fieldLength / 2.0;
@@ -3,6 +3,10 @@ package frc.robot;
 import edu.wpi.first.cameraserver.CameraServer;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.util.LoggedTunableNumber;
+import frc.robot.util.LoopTiming;
+import frc.robot.util.ParallelIOUpdater;
+import frc.robot.util.StatusSignalRegistry;
 import org.littletonrobotics.junction.LogFileUtil;
 import org.littletonrobotics.junction.LoggedRobot;
 import org.littletonrobotics.junction.Logger;
@@ -20,6 +24,11 @@ public class Robot extends LoggedRobot {
   private Command autonomousCommand;
   private RobotContainer robotContainer;
 
+  private final LoopTiming.Probe statusSignalsTiming = LoopTiming.probe("StatusSignals");
+  private final LoopTiming.Probe ioUpdateTiming = LoopTiming.probe("IOUpdate");
+  private final LoopTiming.Probe schedulerTiming = LoopTiming.probe("CommandScheduler");
+  private final LoopTiming.Probe shuffleboardTiming = LoopTiming.probe("Shuffleboard");
+
   /**
    * This function is run when the robot is first started up and should be used for any
    * initialization code.
@@ -83,15 +92,36 @@ public class Robot extends LoggedRobot {
   /** This function is called periodically during all modes. */
   @Override
   public void robotPeriodic() {
+    long loopStartNanos = System.nanoTime();
+
+    // Bump the tunable version if any tunable number changed on the dashboard
+    LoggedTunableNumber.updateVersion();
+
+    // Refresh every registered CAN status signal in one batch before the IO classes read them
+    statusSignalsTiming.start();
+    StatusSignalRegistry.refreshAll();
+    statusSignalsTiming.stop();
+
+    // Read every subsystem's hardware in parallel, inputs are logged in each periodic below
+    ioUpdateTiming.start();
+    ParallelIOUpdater.updateAll();
+    ioUpdateTiming.stop();
+
     // Runs the Scheduler. This is responsible for polling buttons, adding
     // newly-scheduled commands, running already-scheduled commands, removing
     // finished or interrupted commands, and running subsystem periodic() methods.
     // This must be called from the robot's periodic block in order for anything in
     // the Command-based framework to work.
+    schedulerTiming.start();
     CommandScheduler.getInstance().run();
+    schedulerTiming.stop();
 
     // updates shuffleboard outputs periodically
+    shuffleboardTiming.start();
     robotContainer.updateShuffleboard();
+    shuffleboardTiming.stop();
+
+    LoopTiming.log(System.nanoTime() - loopStartNanos);
   }
 
   /** This function is called once when the robot is disabled. */
@@ -3,26 +3,25 @@ package frc.robot;
 import com.pathplanner.lib.auto.AutoBuilder;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.geometry.Transform3d;
 import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.geometry.Translation3d;
 import edu.wpi.first.math.util.Units;
 import edu.wpi.first.networktables.GenericEntry;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.GenericHID;
-import edu.wpi.first.wpilibj.PowerDistribution;
 import edu.wpi.first.wpilibj.PowerDistribution.ModuleType;
 import edu.wpi.first.wpilibj.XboxController;
 import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
 import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.InstantCommand;
-import edu.wpi.first.wpilibj2.command.ParallelCommandGroup;
-import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
 import edu.wpi.first.wpilibj2.command.WaitCommand;
 import edu.wpi.first.wpilibj2.command.button.CommandXboxController;
+import frc.robot.Constants.PowerConstants;
 import frc.robot.Constants.RobotConstants;
-import frc.robot.Constants.RobotType;
-import frc.robot.Constants.ShooterConstants;
+import frc.robot.Constants.VisionConstants;
 import frc.robot.commands.AutoCommands;
 import frc.robot.commands.DriveCommands;
 import frc.robot.commands.FeedForwardCharacterization;
@@ -43,11 +42,20 @@ import frc.robot.subsystems.indexer.IndexerIOSim;
 import frc.robot.subsystems.intake.Intake;
 import frc.robot.subsystems.intake.IntakeIOReal;
 import frc.robot.subsystems.intake.IntakeIOSim;
+import frc.robot.subsystems.power.Power;
+import frc.robot.subsystems.power.PowerDistributionIO;
+import frc.robot.subsystems.power.PowerDistributionIOReal;
 import frc.robot.subsystems.shooter.Shooter;
 import frc.robot.subsystems.shooter.ShooterIOReal;
 import frc.robot.subsystems.shooter.ShooterIOSim;
+import frc.robot.subsystems.superstructure.Superstructure;
+import frc.robot.subsystems.vision.Vision;
+import frc.robot.subsystems.vision.VisionIO;
+import frc.robot.subsystems.vision.VisionIOPhoton;
 import frc.robot.util.AllianceFlipUtil;
 import frc.robot.util.LoggedTunableNumber;
+import frc.robot.util.ShotSolver;
+import java.util.List;
 import org.littletonrobotics.junction.networktables.LoggedDashboardChooser;
 
 /**
@@ -63,7 +71,12 @@ public class RobotContainer {
   private final Shooter shooter;
   private final Arm arm;
   private final Indexer indexer;
-  private PowerDistribution pdh;
+  private final Vision vision;
+  private final Power power;
+  private final Superstructure superstructure;
+  private final ShotSolver shotSolver = new ShotSolver();
+  private long tunablesVersion = -1;
+  private final int tunableSubscriber = LoggedTunableNumber.registerSubscriber();
 
   // shuffleboard
   ShuffleboardTab boomerangTab;
@@ -101,7 +114,12 @@ public class RobotContainer {
     switch (Constants.getRobot()) {
       case ROBOT_REAL:
         // Real robot, instantiate hardware IO implementations
-        pdh = new PowerDistribution(Constants.CAN.kPowerDistributionHub, ModuleType.kRev);
+        power =
+            new Power(
+                new PowerDistributionIOReal(
+                    Constants.CAN.kPowerDistributionHub,
+                    ModuleType.kRev,
+                    PowerConstants.kPollRateHz));
         drive =
             new Drive(
                 new GyroIONAVX(),
@@ -113,10 +131,25 @@ public class RobotContainer {
         shooter = new Shooter(new ShooterIOReal());
         arm = new Arm(new ArmIOReal());
         indexer = new Indexer(new IndexerIOReal());
+        VisionIO cameraOne =
+            new VisionIOPhoton(
+                VisionConstants.cameraOneName,
+                robotToCamera(VisionConstants.cameraOnePosition, VisionConstants.cameraOneAngle));
+        vision =
+            VisionConstants.useCameraTwo
+                ? new Vision(
+                    drive,
+                    cameraOne,
+                    new VisionIOPhoton(
+                        VisionConstants.cameraTwoName,
+                        robotToCamera(
+                            VisionConstants.cameraTwoPosition, VisionConstants.cameraTwoAngle)))
+                : new Vision(drive, cameraOne);
         break;
 
       case ROBOT_SIM:
         // Sim robot, instantiate physics sim IO implementations
+        power = new Power(new PowerDistributionIO() {});
         drive =
             new Drive(
                 new GyroIO() {},
@@ -128,9 +161,11 @@ public class RobotContainer {
         shooter = new Shooter(new ShooterIOSim());
         arm = new Arm(new ArmIOSim());
         indexer = new Indexer(new IndexerIOSim());
+        vision = new Vision(drive);
         break;
 
       case ROBOT_FOOTBALL:
+        power = new Power(new PowerDistributionIO() {});
         drive =
             new Drive(
                 new GyroIO() {},
@@ -142,6 +177,7 @@ public class RobotContainer {
         shooter = new Shooter(new ShooterIOSim());
         arm = new Arm(new ArmIOSim());
         indexer = new Indexer(new IndexerIOSim());
+        vision = new Vision(drive);
 
         break;
 
@@ -150,6 +186,7 @@ public class RobotContainer {
         // Replayed robot, disable IO implementations since the replay
         // will supply the data.
 
+        power = new Power(new PowerDistributionIO() {});
         drive =
             new Drive(
                 new GyroIO() {},
@@ -161,10 +198,24 @@ public class RobotContainer {
         shooter = new Shooter(new ShooterIOSim());
         arm = new Arm(new ArmIOSim());
         indexer = new Indexer(new IndexerIOSim());
+        vision =
+            VisionConstants.useCameraTwo
+                ? new Vision(drive, new VisionIO() {}, new VisionIO() {})
+                : new Vision(drive, new VisionIO() {});
 
         break;
     }
 
+    // Coordinates the note handling mechanisms through a shot
+    superstructure = new Superstructure(intake, indexer, shooter, arm, drive, shotSolver);
+
+    // Scale back the drive and rollers when the battery sags. The arm is left out so it can
+    // always hold its position.
+    power.addGovernedOutput(drive::setOutputScale);
+    power.addGovernedOutput(intake::setOutputScale);
+    power.addGovernedOutput(indexer::setOutputScale);
+    power.addGovernedOutput(shooter::setOutputScale);
+
     // Set up auto routines
     autoChooser = new LoggedDashboardChooser<>("Auto Choices", AutoBuilder.buildAutoChooser());
 
@@ -186,6 +237,13 @@ public class RobotContainer {
     // setStartingPose();
   }
 
+  /** Builds the robot to camera transform from a camera's mounting position and yaw. */
+  private static Transform3d robotToCamera(Translation2d position, double yawRad) {
+    return new Transform3d(
+        new Translation3d(position.getX(), position.getY(), VisionConstants.cameraHeightMeters),
+        new Rotation3d(0.0, 0.0, yawRad));
+  }
+
   private void initShuffleboard() {
     // Configure the Shuffleboard
     boomerangTab = Shuffleboard.getTab("Boomerang");
@@ -194,18 +252,6 @@ public class RobotContainer {
 
   public void updateShuffleboard() {
 
-    if (Constants.getRobot() == RobotType.ROBOT_REAL) {
-      SmartDashboard.putNumber("PDH/Voltage", pdh.getVoltage());
-      SmartDashboard.putNumber("PDH/Current", pdh.getTotalCurrent());
-      SmartDashboard.putNumber("PDH/Power", pdh.getTotalPower());
-      SmartDashboard.putNumber("PDH/Energy", pdh.getTotalEnergy());
-
-      int numChannels = pdh.getNumChannels();
-      for (int i = 0; i < numChannels; i++) {
-        SmartDashboard.putNumber("PDH/Channel " + i, pdh.getCurrent(i));
-      }
-    }
-
     // resetPosWithDashboard();
   }
 
@@ -215,15 +261,18 @@ public class RobotContainer {
     // update robot position only if robot is disabled, otherwise
     // robot could move in unexpected ways.
     if (DriverStation.isDisabled()) {
-      if (startX0.hasChanged(hashCode())
-          || startY0.hasChanged(hashCode())
-          || startTheta0.hasChanged(hashCode())
-          || startX1.hasChanged(hashCode())
-          || startY1.hasChanged(hashCode())
-          || startTheta1.hasChanged(hashCode())
-          || startPositionIndex.hasChanged(hashCode())) {
-
-        setStartingPose();
+      if (tunablesVersion != LoggedTunableNumber.getVersion()) {
+        tunablesVersion = LoggedTunableNumber.getVersion();
+        if (startX0.hasChanged(tunableSubscriber)
+            || startY0.hasChanged(tunableSubscriber)
+            || startTheta0.hasChanged(tunableSubscriber)
+            || startX1.hasChanged(tunableSubscriber)
+            || startY1.hasChanged(tunableSubscriber)
+            || startTheta1.hasChanged(tunableSubscriber)
+            || startPositionIndex.hasChanged(tunableSubscriber)) {
+
+          setStartingPose();
+        }
       }
     }
   }
@@ -315,18 +364,16 @@ public class RobotContainer {
                 () -> -90,
                 () -> drive.getYaw(),
                 () -> Constants.driveRobotRelative));
+    driveController.rightStick().toggleOnTrue(new ArmToShoot(arm, drive, shooter, shotSolver));
     driveController
         .rightStick()
         .toggleOnTrue(
-            DriveCommands.joystickDriveFacingPoint(
+            DriveCommands.joystickDriveFacingShot(
                 drive,
                 () -> -driveController.getLeftY() * Constants.DriveConstants.lowGearScaler,
                 () -> -driveController.getLeftX() * Constants.DriveConstants.lowGearScaler,
-                new Translation2d(
-                    FieldConstants.Speaker.centerSpeakerOpening.toTranslation2d().getX() - 0.5,
-                    FieldConstants.Speaker.centerSpeakerOpening.toTranslation2d().getY()),
+                shotSolver,
                 () -> drive.getYaw()));
-    driveController.rightStick().toggleOnTrue((new ArmToShoot(arm, drive)));
     // .repeatedly()
     // .until(driveController.leftTrigger())
     // .andThen(arm.runGoToPosCommand(40.0)));
@@ -336,19 +383,10 @@ public class RobotContainer {
     indexer.setDefaultCommand(new InstantCommand(() -> indexer.stop(), indexer));
     // TODO: tune idle arm angle
 
-    driveController.rightTrigger(0.9).whileTrue(intake.runEatCommand());
+    driveController.rightTrigger(0.9).whileTrue(superstructure.intakeCommand());
     driveController.rightBumper().whileTrue(intake.runVomitCommand());
 
-    operatorController
-        .a()
-        .whileTrue(
-            new ParallelCommandGroup(
-                new SequentialCommandGroup(
-                    new WaitCommand(ShooterConstants.shootRampUpTimeSecs),
-                    new ParallelCommandGroup(
-                        intake.runDigestCommand(),
-                        new InstantCommand(() -> indexer.index(), indexer))),
-                new InstantCommand(() -> shooter.setShoot(), shooter)));
+    operatorController.a().whileTrue(superstructure.shootCommand());
 
     driveController.leftBumper().whileTrue(arm.runGoToPosCommand(55.0));
     driveController.leftBumper().whileFalse(arm.runGoToPosCommand(30.0));
@@ -393,12 +431,13 @@ public class RobotContainer {
         "Module Turn Ramp Test",
         new VoltageCommandRamp(drive, drive::runTurnCommandRampVolts, 0.5, 5.0));
 
-    autoChooser.addOption(
+    autoChooser.addOption( // TODO: change these for new robot
         "Spline Test",
         autoCommands.splineToPose(
-            new Pose2d(
-                new Translation2d(4, 3),
-                new Rotation2d(Math.PI / 2)))); // TODO: change these for new robot
+            new Pose2d(new Translation2d(4, 3), new Rotation2d(Math.PI / 2)),
+            List.of(
+                new Translation2d(startX0.get(), startY0.get()),
+                new Translation2d(startX1.get(), startY1.get()))));
 
     autoChooser.addOption( // drives 10 ft for odometry testing
         "10 foot test", autoCommands.TenFootTest(drive)); // TODO: change these for new robot
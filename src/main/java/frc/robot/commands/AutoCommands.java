@@ -6,6 +6,8 @@ import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.wpilibj2.command.Command;
 import frc.robot.subsystems.drive.Drive;
 import frc.robot.util.AllianceFlipUtil;
+import frc.robot.util.TrajectoryCache;
+import java.util.List;
 
 public class AutoCommands {
   // Subsystems
@@ -16,12 +18,7 @@ public class AutoCommands {
   }
 
   public Command driveToPose(Pose2d pose) {
-    var drvToPose =
-        new DriveToPose(
-            this.drive,
-            () -> {
-              return AllianceFlipUtil.apply(pose);
-            });
+    var drvToPose = new DriveToPose(this.drive, AllianceFlipUtil.precompute(pose));
     return drvToPose.until(drvToPose::atGoal);
   }
 
@@ -45,6 +42,22 @@ public class AutoCommands {
     return splToPose.until(splToPose::atGoal);
   }
 
+  /**
+   * Splines to a pose, precomputing the trajectory from each expected start position on both
+   * alliances while the robot is disabled.
+   *
+   * @param pose The pose to drive to, not flipped for the alliance
+   * @param expectedStarts Positions the robot may start from at rest, in blue alliance coordinates
+   */
+  public Command splineToPose(Pose2d pose, List<Translation2d> expectedStarts) {
+    var constraints = SplineToPose.getConstraints(false);
+    for (Translation2d start : expectedStarts) {
+      TrajectoryCache.precompute(start, pose, constraints);
+      TrajectoryCache.precompute(AllianceFlipUtil.flip(start), pose, constraints);
+    }
+    return splineToPose(pose);
+  }
+
   public Command TenFootTest(Drive drive) {
     return new DriveToPose(drive, new Pose2d(new Translation2d(3.048, 0), new Rotation2d(0)));
   }
@@ -2,6 +2,7 @@ package frc.robot.commands;
 
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
 import frc.robot.FieldConstants;
 import frc.robot.FieldConstants.StagingLocations;
@@ -9,157 +10,26 @@ import frc.robot.subsystems.drive.Drive;
 import frc.robot.util.AllianceFlipUtil;
 
 public class AutoFieldTest extends SequentialCommandGroup {
-  /** Automatically drives to the amplifier. */
+  /**
+   * Drives to every AprilTag, then every staging location. The targets for both alliances are
+   * computed when the auto is built instead of on each loop.
+   */
   public AutoFieldTest(Drive drive) {
-    addCommands(
-        new DriveToPose(
-            drive,
-            () -> {
-              return AllianceFlipUtil.apply(
-                  FieldConstants.aprilTags.getTagPose(1).get().toPose2d());
-            }),
-        new DriveToPose(
-            drive,
-            () -> {
-              return AllianceFlipUtil.apply(
-                  FieldConstants.aprilTags.getTagPose(2).get().toPose2d());
-            }),
-        new DriveToPose(
-            drive,
-            () -> {
-              return AllianceFlipUtil.apply(
-                  FieldConstants.aprilTags.getTagPose(3).get().toPose2d());
-            }),
-        new DriveToPose(
-            drive,
-            () -> {
-              return AllianceFlipUtil.apply(
-                  FieldConstants.aprilTags.getTagPose(4).get().toPose2d());
-            }),
-        new DriveToPose(
-            drive,
-            () -> {
-              return AllianceFlipUtil.apply(
-                  FieldConstants.aprilTags.getTagPose(5).get().toPose2d());
-            }),
-        new DriveToPose(
-            drive,
-            () -> {
-              return AllianceFlipUtil.apply(
-                  FieldConstants.aprilTags.getTagPose(6).get().toPose2d());
-            }),
-        new DriveToPose(
-            drive,
-            () -> {
-              return AllianceFlipUtil.apply(
-                  FieldConstants.aprilTags.getTagPose(7).get().toPose2d());
-            }),
-        new DriveToPose(
-            drive,
-            () -> {
-              return AllianceFlipUtil.apply(
-                  FieldConstants.aprilTags.getTagPose(8).get().toPose2d());
-            }),
-        new DriveToPose(
-            drive,
-            () -> {
-              return AllianceFlipUtil.apply(
-                  FieldConstants.aprilTags.getTagPose(9).get().toPose2d());
-            }),
-        new DriveToPose(
-            drive,
-            () -> {
-              return AllianceFlipUtil.apply(
-                  FieldConstants.aprilTags.getTagPose(10).get().toPose2d());
-            }),
-        new DriveToPose(
-            drive,
-            () -> {
-              return AllianceFlipUtil.apply(
-                  FieldConstants.aprilTags.getTagPose(11).get().toPose2d());
-            }),
-        new DriveToPose(
-            drive,
-            () -> {
-              return AllianceFlipUtil.apply(
-                  FieldConstants.aprilTags.getTagPose(12).get().toPose2d());
-            }),
-        new DriveToPose(
-            drive,
-            () -> {
-              return AllianceFlipUtil.apply(
-                  FieldConstants.aprilTags.getTagPose(13).get().toPose2d());
-            }),
-        new DriveToPose(
-            drive,
-            () -> {
-              return AllianceFlipUtil.apply(
-                  FieldConstants.aprilTags.getTagPose(14).get().toPose2d());
-            }),
-        new DriveToPose(
-            drive,
-            () -> {
-              return AllianceFlipUtil.apply(
-                  FieldConstants.aprilTags.getTagPose(15).get().toPose2d());
-            }),
-        new DriveToPose(
-            drive,
-            () -> {
-              return AllianceFlipUtil.apply(
-                  FieldConstants.aprilTags.getTagPose(16).get().toPose2d());
-            }),
-        new DriveToPose(
-            drive,
-            () -> {
-              return new Pose2d(
-                  AllianceFlipUtil.apply(StagingLocations.spikeTranslations[0]), new Rotation2d());
-            }),
-        new DriveToPose(
-            drive,
-            () -> {
-              return new Pose2d(
-                  AllianceFlipUtil.apply(StagingLocations.spikeTranslations[1]), new Rotation2d());
-            }),
-        new DriveToPose(
-            drive,
-            () -> {
-              return new Pose2d(
-                  AllianceFlipUtil.apply(StagingLocations.spikeTranslations[2]), new Rotation2d());
-            }),
-        new DriveToPose(
-            drive,
-            () -> {
-              return new Pose2d(
-                  AllianceFlipUtil.apply(StagingLocations.centerlineTranslations[0]),
-                  new Rotation2d());
-            }),
-        new DriveToPose(
-            drive,
-            () -> {
-              return new Pose2d(
-                  AllianceFlipUtil.apply(StagingLocations.centerlineTranslations[1]),
-                  new Rotation2d());
-            }),
-        new DriveToPose(
-            drive,
-            () -> {
-              return new Pose2d(
-                  AllianceFlipUtil.apply(StagingLocations.centerlineTranslations[2]),
-                  new Rotation2d());
-            }),
-        new DriveToPose(
-            drive,
-            () -> {
-              return new Pose2d(
-                  AllianceFlipUtil.apply(StagingLocations.centerlineTranslations[3]),
-                  new Rotation2d());
-            }),
-        new DriveToPose(
-            drive,
-            () -> {
-              return new Pose2d(
-                  AllianceFlipUtil.apply(StagingLocations.centerlineTranslations[4]),
-                  new Rotation2d());
-            }));
+    for (int tag = 1; tag <= 16; tag++) {
+      addCommands(
+          new DriveToPose(
+              drive,
+              AllianceFlipUtil.precompute(
+                  FieldConstants.aprilTags.getTagPose(tag).get().toPose2d())));
+    }
+    for (Translation2d spike : StagingLocations.spikeTranslations) {
+      addCommands(
+          new DriveToPose(drive, AllianceFlipUtil.precompute(new Pose2d(spike, new Rotation2d()))));
+    }
+    for (Translation2d centerline : StagingLocations.centerlineTranslations) {
+      addCommands(
+          new DriveToPose(
+              drive, AllianceFlipUtil.precompute(new Pose2d(centerline, new Rotation2d()))));
+    }
   }
 }
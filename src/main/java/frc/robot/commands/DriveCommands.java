@@ -18,6 +18,7 @@ import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Transform2d;
 import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.geometry.Twist2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj2.command.Command;
@@ -25,8 +26,10 @@ import edu.wpi.first.wpilibj2.command.Commands;
 import frc.robot.Constants;
 import frc.robot.subsystems.drive.Drive;
 import frc.robot.util.AllianceFlipUtil;
+import frc.robot.util.ShotSolver;
 import java.util.function.BooleanSupplier;
 import java.util.function.DoubleSupplier;
+import java.util.function.ToDoubleFunction;
 
 public class DriveCommands {
   private DriveCommands() {}
@@ -143,6 +146,48 @@ public class DriveCommands {
       DoubleSupplier ySupplier,
       Translation2d facingPose,
       DoubleSupplier robotYawSupplier) {
+    return joystickDriveFacing(
+        drive,
+        xSupplier,
+        ySupplier,
+        robotPose ->
+            Math.atan2(
+                facingPose.getY() - robotPose.getY(),
+                AllianceFlipUtil.apply(facingPose.getX()) - robotPose.getX()),
+        robotYawSupplier);
+  }
+
+  /**
+   * Field relative drive command that keeps the robot facing the shot solver's virtual target, so
+   * the heading leads the shot by the robot's velocity the same way the arm angle does. Solves the
+   * shot itself each loop, so it does not depend on another aiming command running.
+   */
+  public static Command joystickDriveFacingShot(
+      Drive drive,
+      DoubleSupplier xSupplier,
+      DoubleSupplier ySupplier,
+      ShotSolver solver,
+      DoubleSupplier robotYawSupplier) {
+    Twist2d fieldVelocity = new Twist2d();
+    return joystickDriveFacing(
+        drive,
+        xSupplier,
+        ySupplier,
+        robotPose -> {
+          solver.updateSpeaker(robotPose, drive.getFieldVelocity(fieldVelocity));
+          return Math.atan2(
+              solver.getVirtualTargetY() - robotPose.getY(),
+              solver.getVirtualTargetX() - robotPose.getX());
+        },
+        robotYawSupplier);
+  }
+
+  private static Command joystickDriveFacing(
+      Drive drive,
+      DoubleSupplier xSupplier,
+      DoubleSupplier ySupplier,
+      ToDoubleFunction<Pose2d> desiredAngleFunction,
+      DoubleSupplier robotYawSupplier) {
     return Commands.run(
         () -> {
           // Apply deadband
@@ -154,11 +199,7 @@ public class DriveCommands {
               new Rotation2d(xSupplier.getAsDouble(), ySupplier.getAsDouble());
 
           // get desired angle
-          Pose2d robotPose = drive.getPose();
-          double desiredAngle =
-              Math.atan2(
-                  facingPose.getY() - robotPose.getY(),
-                  AllianceFlipUtil.apply(facingPose.getX()) - robotPose.getX());
+          double desiredAngle = desiredAngleFunction.applyAsDouble(drive.getPose());
 
           // Square values
           linearMagnitude = linearMagnitude * linearMagnitude;
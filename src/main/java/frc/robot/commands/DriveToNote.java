@@ -13,11 +13,11 @@ public class DriveToNote extends SequentialCommandGroup {
     addCommands(
         new DriveToPose(
             drive,
-            AllianceFlipUtil.apply(
+            AllianceFlipUtil.precompute(
                 new Pose2d(StagingLocations.spikeTranslations[1], new Rotation2d(0.0)))),
         new DriveToPose(
             drive,
-            AllianceFlipUtil.apply(
+            AllianceFlipUtil.precompute(
                 new Pose2d(StagingLocations.centerlineTranslations[4], new Rotation2d(90.0)))));
   }
 }
@@ -39,6 +39,8 @@ public class DriveToPose extends Command {
   private double driveErrorAbs;
   private double thetaErrorAbs;
   private Translation2d lastSetpointTranslation;
+  private long tunablesVersion = -1; // Tunables are only checked when this is out of date
+  private final int tunableSubscriber = LoggedTunableNumber.registerSubscriber();
 
   private static final LoggedTunableNumber driveKp = new LoggedTunableNumber("DriveToPose/DriveKp");
   private static final LoggedTunableNumber driveKd = new LoggedTunableNumber("DriveToPose/DriveKd");
@@ -146,34 +148,37 @@ public class DriveToPose extends Command {
     running = true;
 
     // Update from tunable numbers
-    if (driveMaxVelocity.hasChanged(hashCode())
-        || driveMaxVelocitySlow.hasChanged(hashCode())
-        || driveMaxAcceleration.hasChanged(hashCode())
-        || driveTolerance.hasChanged(hashCode())
-        || driveToleranceSlow.hasChanged(hashCode())
-        || thetaMaxVelocity.hasChanged(hashCode())
-        || thetaMaxVelocitySlow.hasChanged(hashCode())
-        || thetaMaxAcceleration.hasChanged(hashCode())
-        || thetaTolerance.hasChanged(hashCode())
-        || thetaToleranceSlow.hasChanged(hashCode())
-        || driveKp.hasChanged(hashCode())
-        || driveKd.hasChanged(hashCode())
-        || thetaKp.hasChanged(hashCode())
-        || thetaKd.hasChanged(hashCode())) {
-      driveController.setP(driveKp.get());
-      driveController.setD(driveKd.get());
-      driveController.setConstraints(
-          new TrapezoidProfile.Constraints(
-              slowMode ? driveMaxVelocitySlow.get() : driveMaxVelocity.get(),
-              driveMaxAcceleration.get()));
-      driveController.setTolerance(slowMode ? driveToleranceSlow.get() : driveTolerance.get());
-      thetaController.setP(thetaKp.get());
-      thetaController.setD(thetaKd.get());
-      thetaController.setConstraints(
-          new TrapezoidProfile.Constraints(
-              slowMode ? thetaMaxVelocitySlow.get() : thetaMaxVelocity.get(),
-              thetaMaxAcceleration.get()));
-      thetaController.setTolerance(slowMode ? thetaToleranceSlow.get() : thetaTolerance.get());
+    if (tunablesVersion != LoggedTunableNumber.getVersion()) {
+      tunablesVersion = LoggedTunableNumber.getVersion();
+      if (driveMaxVelocity.hasChanged(tunableSubscriber)
+          || driveMaxVelocitySlow.hasChanged(tunableSubscriber)
+          || driveMaxAcceleration.hasChanged(tunableSubscriber)
+          || driveTolerance.hasChanged(tunableSubscriber)
+          || driveToleranceSlow.hasChanged(tunableSubscriber)
+          || thetaMaxVelocity.hasChanged(tunableSubscriber)
+          || thetaMaxVelocitySlow.hasChanged(tunableSubscriber)
+          || thetaMaxAcceleration.hasChanged(tunableSubscriber)
+          || thetaTolerance.hasChanged(tunableSubscriber)
+          || thetaToleranceSlow.hasChanged(tunableSubscriber)
+          || driveKp.hasChanged(tunableSubscriber)
+          || driveKd.hasChanged(tunableSubscriber)
+          || thetaKp.hasChanged(tunableSubscriber)
+          || thetaKd.hasChanged(tunableSubscriber)) {
+        driveController.setP(driveKp.get());
+        driveController.setD(driveKd.get());
+        driveController.setConstraints(
+            new TrapezoidProfile.Constraints(
+                slowMode ? driveMaxVelocitySlow.get() : driveMaxVelocity.get(),
+                driveMaxAcceleration.get()));
+        driveController.setTolerance(slowMode ? driveToleranceSlow.get() : driveTolerance.get());
+        thetaController.setP(thetaKp.get());
+        thetaController.setD(thetaKd.get());
+        thetaController.setConstraints(
+            new TrapezoidProfile.Constraints(
+                slowMode ? thetaMaxVelocitySlow.get() : thetaMaxVelocity.get(),
+                thetaMaxAcceleration.get()));
+        thetaController.setTolerance(slowMode ? thetaToleranceSlow.get() : thetaTolerance.get());
+      }
     }
 
     // Get current and target pose
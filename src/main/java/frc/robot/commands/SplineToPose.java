@@ -9,38 +9,52 @@
 package frc.robot.commands;
 
 import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.controller.PIDController;
 import edu.wpi.first.math.controller.ProfiledPIDController;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
-import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.geometry.Twist2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.math.trajectory.TrapezoidProfile;
 import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.Command;
 import frc.robot.Constants;
 import frc.robot.subsystems.drive.Drive;
-import frc.robot.util.GeomUtil;
 import frc.robot.util.LoggedTunableNumber;
-import frc.robot.util.SplineMath;
+import frc.robot.util.SplineTrajectory;
+import frc.robot.util.TrajectoryCache;
+import java.util.List;
 import java.util.function.Supplier;
 import org.littletonrobotics.junction.Logger;
 
+/**
+ * Drives to a pose along a quintic spline that arrives traveling in the direction of the pose's
+ * rotation. The trajectory is generated once when the command starts, from the robot's current
+ * position and velocity, and each loop samples it by time and corrects the position error.
+ */
 public class SplineToPose extends Command {
+  private static final double MIN_START_SPEED = 0.1; // Below this the robot is treated as stopped
+
   private final Drive drive;
   private final boolean slowMode;
   private final Supplier<Pose2d> poseSupplier;
-  private SplineMath spline;
+  private SplineTrajectory trajectory;
+  private final SplineTrajectory.State setpoint = new SplineTrajectory.State();
+  private SplineTrajectory.Constraints constraints;
+  private final Timer timer = new Timer();
 
   private boolean running = false;
-  private final ProfiledPIDController splineController =
-      new ProfiledPIDController(
-          0.0, 0.0, 0.0, new TrapezoidProfile.Constraints(0.0, 0.0), Constants.loopPeriodSecs);
+  private final PIDController xController = new PIDController(0.0, 0.0, 0.0);
+  private final PIDController yController = new PIDController(0.0, 0.0, 0.0);
   private final ProfiledPIDController splineThetaController =
       new ProfiledPIDController(
           0.0, 0.0, 0.0, new TrapezoidProfile.Constraints(0.0, 0.0), Constants.loopPeriodSecs);
+  private double driveTolerance;
   private double splineErrorAbs;
   private double splineThetaErrorAbs;
-  private Translation2d lastSetpointTranslation;
+  private long tunablesVersion = -1;
+  private final int tunableSubscriber = LoggedTunableNumber.registerSubscriber();
 
   private static final LoggedTunableNumber splineKp =
       new LoggedTunableNumber("SplineToPose/DriveKp");
@@ -56,6 +70,8 @@ public class SplineToPose extends Command {
       new LoggedTunableNumber("SplineToPose/DriveMaxVelocitySlow");
   private static final LoggedTunableNumber splineMaxAcceleration =
       new LoggedTunableNumber("SplineToPose/DriveMaxAcceleration");
+  private static final LoggedTunableNumber splineMaxCentripetalAcceleration =
+      new LoggedTunableNumber("SplineToPose/DriveMaxCentripetalAcceleration");
   private static final LoggedTunableNumber splineThetaMaxVelocity =
       new LoggedTunableNumber("SplineToPose/ThetaMaxVelocity");
   private static final LoggedTunableNumber splineThetaMaxVelocitySlow =
@@ -88,6 +104,7 @@ public class SplineToPose extends Command {
         splineMaxVelocity.initDefault(Units.inchesToMeters(150.0));
         splineMaxVelocitySlow.initDefault(Units.inchesToMeters(50.0));
         splineMaxAcceleration.initDefault(Units.inchesToMeters(95.0));
+        splineMaxCentripetalAcceleration.initDefault(Units.inchesToMeters(95.0));
         splineThetaMaxVelocity.initDefault(Units.degreesToRadians(360.0));
         splineThetaMaxVelocitySlow.initDefault(Units.degreesToRadians(90.0));
         splineThetaMaxAcceleration.initDefault(Units.degreesToRadians(720.0));
@@ -124,101 +141,112 @@ public class SplineToPose extends Command {
     this.poseSupplier = poseSupplier;
     addRequirements(drive);
     splineThetaController.enableContinuousInput(-Math.PI, Math.PI);
-    // spline :)
-    spline =
-        new SplineMath(
-            poseSupplier.get().getTranslation(),
-            poseSupplier.get().getRotation().getRadians(),
-            drive.getPose());
   }
 
   @Override
   public void initialize() {
-    // Reset all controllers
+    updateTunables();
+
+    // Start along the current velocity if moving, otherwise straight toward the target from rest
     var currentPose = drive.getPose();
-    splineController.reset(
-        currentPose.getTranslation().getDistance(poseSupplier.get().getTranslation()),
-        Math.min(
-            0.0,
-            -new Translation2d(drive.getFieldVelocity().dx, drive.getFieldVelocity().dy)
-                .rotateBy(
-                    poseSupplier
-                        .get()
-                        .getTranslation()
-                        .minus(drive.getPose().getTranslation())
-                        .getAngle()
-                        .unaryMinus())
-                .getX()));
+    var targetPose = poseSupplier.get();
+    Twist2d fieldVelocity = drive.getFieldVelocity();
+    double startSpeed = Math.hypot(fieldVelocity.dx, fieldVelocity.dy);
+    if (startSpeed > MIN_START_SPEED) {
+      trajectory =
+          SplineTrajectory.generate(
+              List.of(
+                  new Pose2d(
+                      currentPose.getTranslation(),
+                      new Rotation2d(fieldVelocity.dx, fieldVelocity.dy)),
+                  targetPose),
+              startSpeed,
+              constraints);
+    } else {
+      trajectory = TrajectoryCache.get(currentPose.getTranslation(), targetPose, constraints);
+    }
+    timer.restart();
+
+    // Reset all controllers
+    xController.reset();
+    yController.reset();
     splineThetaController.reset(currentPose.getRotation().getRadians(), drive.getYawVelocity());
-    lastSetpointTranslation = drive.getPose().getTranslation();
+    Logger.recordOutput("SplineToPose/Trajectory", trajectory.getPoses(0.1));
+  }
+
+  /**
+   * Returns the limits trajectories are currently generated with, for precomputing them with
+   * {@link TrajectoryCache}.
+   */
+  public static SplineTrajectory.Constraints getConstraints(boolean slowMode) {
+    return new SplineTrajectory.Constraints(
+        slowMode ? splineMaxVelocitySlow.get() : splineMaxVelocity.get(),
+        splineMaxAcceleration.get(),
+        splineMaxCentripetalAcceleration.get());
+  }
+
+  private void updateTunables() {
+    if (tunablesVersion != LoggedTunableNumber.getVersion()) {
+      tunablesVersion = LoggedTunableNumber.getVersion();
+      if (splineMaxVelocity.hasChanged(tunableSubscriber)
+          || splineMaxVelocitySlow.hasChanged(tunableSubscriber)
+          || splineMaxAcceleration.hasChanged(tunableSubscriber)
+          || splineMaxCentripetalAcceleration.hasChanged(tunableSubscriber)
+          || splineTolerance.hasChanged(tunableSubscriber)
+          || splineToleranceSlow.hasChanged(tunableSubscriber)
+          || splineThetaMaxVelocity.hasChanged(tunableSubscriber)
+          || splineThetaMaxVelocitySlow.hasChanged(tunableSubscriber)
+          || splineThetaMaxAcceleration.hasChanged(tunableSubscriber)
+          || splineThetaTolerance.hasChanged(tunableSubscriber)
+          || splineThetaToleranceSlow.hasChanged(tunableSubscriber)
+          || splineKp.hasChanged(tunableSubscriber)
+          || splineKd.hasChanged(tunableSubscriber)
+          || splineThetaKp.hasChanged(tunableSubscriber)
+          || splineThetaKd.hasChanged(tunableSubscriber)) {
+        xController.setPID(splineKp.get(), 0.0, splineKd.get());
+        yController.setPID(splineKp.get(), 0.0, splineKd.get());
+        constraints = getConstraints(slowMode);
+        driveTolerance = slowMode ? splineToleranceSlow.get() : splineTolerance.get();
+        splineThetaController.setP(splineThetaKp.get());
+        splineThetaController.setD(splineThetaKd.get());
+        splineThetaController.setConstraints(
+            new TrapezoidProfile.Constraints(
+                slowMode ? splineThetaMaxVelocitySlow.get() : splineThetaMaxVelocity.get(),
+                splineThetaMaxAcceleration.get()));
+        splineThetaController.setTolerance(
+            slowMode ? splineThetaToleranceSlow.get() : splineThetaTolerance.get());
+      }
+    }
   }
 
   @Override
   public void execute() {
     running = true;
 
-    // Update from tunable numbers
-    if (splineMaxVelocity.hasChanged(hashCode())
-        || splineMaxVelocitySlow.hasChanged(hashCode())
-        || splineMaxAcceleration.hasChanged(hashCode())
-        || splineTolerance.hasChanged(hashCode())
-        || splineToleranceSlow.hasChanged(hashCode())
-        || splineThetaMaxVelocity.hasChanged(hashCode())
-        || splineThetaMaxVelocitySlow.hasChanged(hashCode())
-        || splineThetaMaxAcceleration.hasChanged(hashCode())
-        || splineThetaTolerance.hasChanged(hashCode())
-        || splineThetaToleranceSlow.hasChanged(hashCode())
-        || splineKp.hasChanged(hashCode())
-        || splineKd.hasChanged(hashCode())
-        || splineThetaKp.hasChanged(hashCode())
-        || splineThetaKd.hasChanged(hashCode())) {
-      splineController.setP(splineKp.get());
-      splineController.setD(splineKd.get());
-      splineController.setConstraints(
-          new TrapezoidProfile.Constraints(
-              slowMode ? splineMaxVelocitySlow.get() : splineMaxVelocity.get(),
-              splineMaxAcceleration.get()));
-      splineController.setTolerance(slowMode ? splineToleranceSlow.get() : splineTolerance.get());
-      splineThetaController.setP(splineThetaKp.get());
-      splineThetaController.setD(splineThetaKd.get());
-      splineThetaController.setConstraints(
-          new TrapezoidProfile.Constraints(
-              slowMode ? splineThetaMaxVelocitySlow.get() : splineThetaMaxVelocity.get(),
-              splineThetaMaxAcceleration.get()));
-      splineThetaController.setTolerance(
-          slowMode ? splineThetaToleranceSlow.get() : splineThetaTolerance.get());
-    }
+    // Update from tunable numbers, new drive limits apply from the next trajectory
+    updateTunables();
 
     // Get current and target pose
     var currentPose = drive.getPose();
     var targetPose = poseSupplier.get();
-    spline.update(currentPose);
 
-    // Calculate drive speed
-    double currentDistance =
-        currentPose.getTranslation().getDistance(poseSupplier.get().getTranslation());
+    // Follow the trajectory, correcting for position error
+    trajectory.sample(timer.get(), setpoint);
+    double xVelocity = setpoint.vx + xController.calculate(currentPose.getX(), setpoint.x);
+    double yVelocity = setpoint.vy + yController.calculate(currentPose.getY(), setpoint.y);
+    double currentDistance = currentPose.getTranslation().getDistance(targetPose.getTranslation());
+    splineErrorAbs = currentDistance;
+    if (trajectoryDone() && currentDistance < driveTolerance) {
+      xVelocity = 0.0;
+      yVelocity = 0.0;
+    }
+
+    // Calculate theta speed
     double ffScaler =
         MathUtil.clamp(
             (currentDistance - ffMinRadius.get()) / (ffMaxRadius.get() - ffMinRadius.get()),
             0.0,
             1.0);
-    splineErrorAbs = currentDistance;
-    splineController.reset(
-        lastSetpointTranslation.getDistance(targetPose.getTranslation()),
-        splineController.getSetpoint().velocity);
-    double splineVelocityScalar =
-        splineController.getSetpoint().velocity * ffScaler
-            - splineController.calculate(splineErrorAbs, 0.0);
-    if (currentDistance < splineController.getPositionTolerance()) splineVelocityScalar = 0.0;
-    lastSetpointTranslation =
-        new Pose2d(
-                targetPose.getTranslation(),
-                currentPose.getTranslation().minus(targetPose.getTranslation()).getAngle())
-            .transformBy(
-                GeomUtil.translationToTransform(splineController.getSetpoint().position, 0.0))
-            .getTranslation();
-
-    // Calculate theta speed
     double thetaVelocity =
         splineThetaController.getSetpoint().velocity * ffScaler
             + splineThetaController.calculate(
@@ -228,29 +256,29 @@ public class SplineToPose extends Command {
     if (splineThetaErrorAbs < splineThetaController.getPositionTolerance()) thetaVelocity = 0.0;
 
     // Command speeds
-    var driveVelocity =
-        new Pose2d(new Translation2d(), spline.driveVector().getAngle())
-            .transformBy(GeomUtil.translationToTransform(splineVelocityScalar, 0.0))
-            .getTranslation();
     drive.runVelocity(
         ChassisSpeeds.fromFieldRelativeSpeeds(
-            driveVelocity.getX(), driveVelocity.getY(), thetaVelocity, currentPose.getRotation()));
+            xVelocity, yVelocity, thetaVelocity, currentPose.getRotation()));
 
     // Log data
     Logger.recordOutput("SplineToPose/DistanceMeasured", currentDistance);
-    Logger.recordOutput("SplineToPose/DistanceSetpoint", splineController.getSetpoint().position);
     Logger.recordOutput("SplineToPose/ThetaMeasured", currentPose.getRotation().getRadians());
     Logger.recordOutput("SplineToPose/ThetaSetpoint", splineThetaController.getSetpoint().position);
     Logger.recordOutput(
         "Odometry/SplineToPoseSetpoint",
         new Pose2d(
-            lastSetpointTranslation, new Rotation2d(splineThetaController.getSetpoint().position)));
+            setpoint.x, setpoint.y, new Rotation2d(splineThetaController.getSetpoint().position)));
     Logger.recordOutput("Odometry/SplineToPoseGoal", targetPose);
   }
 
+  private boolean trajectoryDone() {
+    return timer.get() >= trajectory.getTotalTimeSeconds();
+  }
+
   @Override
   public void end(boolean interrupted) {
     running = false;
+    timer.stop();
     drive.stop();
     Logger.recordOutput("Odometry/SplineToPoseSetpoint", new Pose2d());
     Logger.recordOutput("Odometry/SplineToPoseGoal", new Pose2d());
@@ -258,7 +286,10 @@ public class SplineToPose extends Command {
 
   /** Checks if the robot is stopped at the final pose. */
   public boolean atGoal() {
-    return running && splineController.atGoal() && splineThetaController.atGoal();
+    return running
+        && trajectoryDone()
+        && splineErrorAbs < driveTolerance
+        && splineThetaController.atGoal();
   }
 
   /**
@@ -1,40 +1,52 @@
 package frc.robot.commands.VisionCommands;
 
-import edu.wpi.first.math.geometry.Pose2d;
-import edu.wpi.first.math.geometry.Rotation2d;
-import edu.wpi.first.math.geometry.Translation2d;
-import edu.wpi.first.wpilibj2.command.InstantCommand;
-import frc.robot.FieldConstants;
+import edu.wpi.first.math.geometry.Twist2d;
+import edu.wpi.first.wpilibj2.command.Command;
 import frc.robot.subsystems.arm.Arm;
 import frc.robot.subsystems.drive.Drive;
-import frc.robot.util.AllianceFlipUtil;
-import frc.robot.util.GeomUtil;
+import frc.robot.subsystems.shooter.Shooter;
+import frc.robot.util.ShotSolver;
+import org.littletonrobotics.junction.Logger;
 
-public class ArmToShoot extends InstantCommand {
+/**
+ * Aims the arm at the speaker every loop, leading the shot by the robot's velocity so it can shoot
+ * while driving. Also sets the flywheel speed used when the shooter is shooting.
+ */
+public class ArmToShoot extends Command {
   private Arm arm;
   private Drive drive;
+  private Shooter shooter;
+  private ShotSolver solver;
+  private final Twist2d fieldVelocity = new Twist2d();
 
-  public ArmToShoot(Arm arm, Drive drive) {
+  public ArmToShoot(Arm arm, Drive drive, Shooter shooter, ShotSolver solver) {
     this.arm = arm;
     this.drive = drive;
-    hasRequirement(arm);
+    this.shooter = shooter;
+    this.solver = solver;
+    addRequirements(arm);
   }
 
-  // Called when the command is initially scheduled.
   @Override
-  public void initialize() {}
+  public void initialize() {
+    solver.updateSpeaker(drive.getPose(), drive.getFieldVelocity(fieldVelocity));
+    arm.setTargetPos(solver.getArmAngleDeg());
+  }
 
   @Override
   public void execute() {
-    var currentPose = drive.getPose();
-    double distance =
-        GeomUtil.distance(
-            currentPose,
-            new Pose2d(
-                new Translation2d(
-                    AllianceFlipUtil.apply(FieldConstants.Speaker.centerSpeakerOpening.getX()),
-                    FieldConstants.Speaker.centerSpeakerOpening.getY()),
-                new Rotation2d()));
-    arm.setTargetPos(((-0.25 * Math.log(1882 * (distance - 0.3)) + 2.55) * 180 / Math.PI));
+    solver.updateSpeaker(drive.getPose(), drive.getFieldVelocity(fieldVelocity));
+    // Only move the goal, resetting the profile every loop would keep the arm from reaching it
+    arm.updateTargetPos(solver.getArmAngleDeg());
+    shooter.setAimedShootVelocity(solver.getFlywheelRPM());
+
+    Logger.recordOutput("ArmToShoot/DistanceMeters", solver.getDistanceMeters());
+    Logger.recordOutput("ArmToShoot/VirtualTargetX", solver.getVirtualTargetX());
+    Logger.recordOutput("ArmToShoot/VirtualTargetY", solver.getVirtualTargetY());
+  }
+
+  @Override
+  public void end(boolean interrupted) {
+    shooter.clearAimedShootVelocity();
   }
 }
@@ -12,12 +12,15 @@ import frc.robot.Constants;
 import frc.robot.Constants.ArmConstants;
 import frc.robot.util.BradyMathLib;
 import frc.robot.util.LoggedTunableNumber;
+import frc.robot.util.LoopTiming;
+import frc.robot.util.ParallelIOUpdater;
 import org.littletonrobotics.junction.AutoLogOutput;
 import org.littletonrobotics.junction.Logger;
 
 public class Arm extends SubsystemBase {
   private ArmIO io;
   private final ArmIOInputsAutoLogged inputs = new ArmIOInputsAutoLogged();
+  private final LoopTiming.Probe periodicTiming = LoopTiming.probe("Arm");
 
   private final SimpleMotorFeedforward ffModel = new SimpleMotorFeedforward(0.0, 0.2);
   private final ProfiledPIDController armPidController =
@@ -31,6 +34,8 @@ public class Arm extends SubsystemBase {
   private double voltageCmdPid = 0.0;
   private boolean reachedTargetPos = true;
   private boolean targetPosSet = false;
+  private long tunablesVersion = -1;
+  private final int tunableSubscriber = LoggedTunableNumber.registerSubscriber();
 
   private static final LoggedTunableNumber positionToleranceDeg =
       new LoggedTunableNumber("Arm/PositionToleranceDeg");
@@ -44,6 +49,7 @@ public class Arm extends SubsystemBase {
 
   public Arm(ArmIO io) {
     this.io = io;
+    ParallelIOUpdater.register(this::updateInputs);
 
     reachedTargetPos = true;
     positionToleranceDeg.initDefault(2.0);
@@ -61,9 +67,14 @@ public class Arm extends SubsystemBase {
     armPidController.setTolerance(Units.degreesToRadians(positionToleranceDeg.get()));
   }
 
+  /** Reads the shoulder motors and encoder, called by the ParallelIOUpdater. */
+  public void updateInputs() {
+    io.updateInputs(inputs);
+  }
+
   @Override
   public void periodic() {
-    io.updateInputs(inputs);
+    periodicTiming.start();
     Logger.processInputs("Arm", inputs);
 
     updateTunables();
@@ -84,6 +95,7 @@ public class Arm extends SubsystemBase {
     }
 
     io.setVoltage(softLimit(voltageCmdPid));
+    periodicTiming.stop();
   }
 
   @AutoLogOutput
@@ -102,20 +114,37 @@ public class Arm extends SubsystemBase {
     targetPosSet = true;
   }
 
+  /**
+   * Moves the goal without restarting the motion profile, for targets that change every loop. Use
+   * {@link #setTargetPos} first so the profile starts from the arm's current angle.
+   */
+  public void updateTargetPos(double targetAngleDeg) {
+    if (targetAngleDeg == this.targetAngleDeg) {
+      return;
+    }
+    this.targetAngleDeg = targetAngleDeg;
+    armPidController.setGoal(Units.degreesToRadians(targetAngleDeg));
+    reachedTargetPos = false;
+    targetPosSet = true;
+  }
+
   private void updateTunables() {
     // Update from tunable numbers
-    if (armMaxVelocityRad.hasChanged(hashCode())
-        || armMaxAccelerationRad.hasChanged(hashCode())
-        || positionToleranceDeg.hasChanged(hashCode())
-        || armKp.hasChanged(hashCode())
-        || armKi.hasChanged(hashCode())
-        || armKd.hasChanged(hashCode())) {
-      armPidController.setP(armKp.get());
-      armPidController.setI(armKi.get());
-      armPidController.setD(armKd.get());
-      armPidController.setConstraints(
-          new TrapezoidProfile.Constraints(armMaxVelocityRad.get(), armMaxAccelerationRad.get()));
-      armPidController.setTolerance(Units.degreesToRadians(positionToleranceDeg.get()));
+    if (tunablesVersion != LoggedTunableNumber.getVersion()) {
+      tunablesVersion = LoggedTunableNumber.getVersion();
+      if (armMaxVelocityRad.hasChanged(tunableSubscriber)
+          || armMaxAccelerationRad.hasChanged(tunableSubscriber)
+          || positionToleranceDeg.hasChanged(tunableSubscriber)
+          || armKp.hasChanged(tunableSubscriber)
+          || armKi.hasChanged(tunableSubscriber)
+          || armKd.hasChanged(tunableSubscriber)) {
+        armPidController.setP(armKp.get());
+        armPidController.setI(armKi.get());
+        armPidController.setD(armKd.get());
+        armPidController.setConstraints(
+            new TrapezoidProfile.Constraints(armMaxVelocityRad.get(), armMaxAccelerationRad.get()));
+        armPidController.setTolerance(Units.degreesToRadians(positionToleranceDeg.get()));
+      }
     }
   }
 
@@ -1,12 +1,16 @@
 package frc.robot.subsystems.arm;
 
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
 import com.ctre.phoenix6.configs.TalonFXConfiguration;
 import com.ctre.phoenix6.controls.Follower;
+import com.ctre.phoenix6.controls.VoltageOut;
 import com.ctre.phoenix6.hardware.TalonFX;
 import com.ctre.phoenix6.signals.NeutralModeValue;
 import edu.wpi.first.wpilibj.DutyCycleEncoder;
 import frc.robot.Constants;
 import frc.robot.Constants.CAN;
+import frc.robot.util.StatusSignalRegistry;
 
 public class ArmIOReal implements ArmIO {
 
@@ -14,6 +18,19 @@ public class ArmIOReal implements ArmIO {
   private TalonFX rShoulder;
   private DutyCycleEncoder absoluteEncoder;
 
+  private final StatusSignal<Double> lVelocity;
+  private final StatusSignal<Double> rVelocity;
+  private final StatusSignal<Double> lMotorVoltage;
+  private final StatusSignal<Double> rMotorVoltage;
+  private final StatusSignal<Double> lSupplyVoltage;
+  private final StatusSignal<Double> rSupplyVoltage;
+  private final StatusSignal<Double> lCurrent;
+  private final StatusSignal<Double> rCurrent;
+
+  private final VoltageOut voltageRequest =
+      new VoltageOut(0.0).withUpdateFreqHz(CAN.kControlUpdateFreqHz);
+  private double lastVoltage = Double.NaN; // Unchanged requests are not resent
+
   public ArmIOReal() {
     lShoulder = new TalonFX(CAN.kShoulderL);
     rShoulder = new TalonFX(CAN.kShoulderR);
@@ -26,41 +43,59 @@ public class ArmIOReal implements ArmIO {
     rShoulder.setControl(new Follower(CAN.kShoulderL, true));
 
     absoluteEncoder = new DutyCycleEncoder(Constants.ArmConstants.kThroughBoreChannel);
+
+    lVelocity = lShoulder.getVelocity();
+    rVelocity = rShoulder.getVelocity();
+    lMotorVoltage = lShoulder.getMotorVoltage();
+    rMotorVoltage = rShoulder.getMotorVoltage();
+    lSupplyVoltage = lShoulder.getSupplyVoltage();
+    rSupplyVoltage = rShoulder.getSupplyVoltage();
+    lCurrent = lShoulder.getStatorCurrent();
+    rCurrent = rShoulder.getStatorCurrent();
+
+    BaseStatusSignal.setUpdateFrequencyForAll(
+        CAN.kStatusUpdateFreqHz,
+        lVelocity,
+        rVelocity,
+        lMotorVoltage,
+        rMotorVoltage,
+        lSupplyVoltage,
+        rSupplyVoltage,
+        lCurrent,
+        rCurrent);
+    // The follower needs the leader's output frames
+    lShoulder.getDutyCycle().setUpdateFrequency(100.0);
+    lShoulder.optimizeBusUtilization();
+    rShoulder.optimizeBusUtilization();
+    StatusSignalRegistry.register(lShoulder, lVelocity, lMotorVoltage, lSupplyVoltage, lCurrent);
+    StatusSignalRegistry.register(rShoulder, rVelocity, rMotorVoltage, rSupplyVoltage, rCurrent);
   }
 
   @Override
   public void updateInputs(ArmIOInputs inputs) {
+    // Signals are refreshed by the StatusSignalRegistry at the start of the loop
     inputs.angleDegs = this.getArmAngleDeg() - Constants.ArmConstants.kAbsoluteEncoderOffset;
     inputs.angleRads = Math.toRadians(this.getArmAngleDeg());
     inputs.velocityRadsPerSec =
-        new double[] {
-          lShoulder.getVelocity().getValueAsDouble(), rShoulder.getVelocity().getValueAsDouble()
-        };
+        new double[] {lVelocity.getValueAsDouble(), rVelocity.getValueAsDouble()};
     inputs.appliedOutput =
-        new double[] {
-          lShoulder.getMotorVoltage().getValueAsDouble(),
-          rShoulder.getMotorVoltage().getValueAsDouble()
-        };
+        new double[] {lMotorVoltage.getValueAsDouble(), rMotorVoltage.getValueAsDouble()};
     inputs.busVoltage =
-        new double[] {
-          lShoulder.getSupplyVoltage().getValueAsDouble(),
-          rShoulder.getSupplyVoltage().getValueAsDouble()
-        };
+        new double[] {lSupplyVoltage.getValueAsDouble(), rSupplyVoltage.getValueAsDouble()};
     inputs.appliedVolts =
         new double[] {
           inputs.busVoltage[0] * inputs.appliedOutput[0],
           inputs.busVoltage[1] * inputs.appliedOutput[1]
         };
-    inputs.currentAmps =
-        new double[] {
-          lShoulder.getStatorCurrent().getValueAsDouble(),
-          rShoulder.getStatorCurrent().getValueAsDouble()
-        };
+    inputs.currentAmps = new double[] {lCurrent.getValueAsDouble(), rCurrent.getValueAsDouble()};
   }
 
   @Override
   public void setVoltage(double voltage) {
-    lShoulder.setVoltage(-voltage);
+    if (voltage != lastVoltage) {
+      lShoulder.setControl(voltageRequest.withOutput(-voltage));
+      lastVoltage = voltage;
+    }
   }
 
   private double getArmAngleDeg() {
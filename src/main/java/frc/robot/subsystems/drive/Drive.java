@@ -18,21 +18,25 @@ import com.pathplanner.lib.pathfinding.Pathfinding;
 import com.pathplanner.lib.util.HolonomicPathFollowerConfig;
 import com.pathplanner.lib.util.PathPlannerLogging;
 import com.pathplanner.lib.util.ReplanningConfig;
-import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
+import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Transform2d;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.geometry.Twist2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
-import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.DriverStation.Alliance;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants;
-// import frc.robot.commands.VisionCommands.PhotonInfo;
 import frc.robot.util.LocalADStarAK;
+import frc.robot.util.LoopTiming;
+import frc.robot.util.ParallelIOUpdater;
+import frc.robot.util.PoseHistoryBuffer;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import org.littletonrobotics.junction.AutoLogOutput;
 import org.littletonrobotics.junction.Logger;
 import org.littletonrobotics.junction.networktables.LoggedDashboardNumber;
@@ -45,28 +49,61 @@ public class Drive extends SubsystemBase {
       Math.hypot(TRACK_WIDTH_X / 2.0, TRACK_WIDTH_Y / 2.0);
   private static final double MAX_ANGULAR_SPEED = MAX_LINEAR_SPEED / DRIVE_BASE_RADIUS;
 
+  static final Lock odometryLock = new ReentrantLock();
+
+  // Module translations as primitives for the allocation-free kinematics below. The modules are
+  // symmetric about the robot center, so the least-squares forward kinematics decouple.
+  private static final double[] MODULE_X =
+      new double[] {
+        TRACK_WIDTH_X / 2.0, TRACK_WIDTH_X / 2.0, -TRACK_WIDTH_X / 2.0, -TRACK_WIDTH_X / 2.0
+      };
+  private static final double[] MODULE_Y =
+      new double[] {
+        TRACK_WIDTH_Y / 2.0, -TRACK_WIDTH_Y / 2.0, TRACK_WIDTH_Y / 2.0, -TRACK_WIDTH_Y / 2.0
+      };
+  private static final double MODULE_RADIUS_SQ_SUM =
+      TRACK_WIDTH_X * TRACK_WIDTH_X + TRACK_WIDTH_Y * TRACK_WIDTH_Y;
+  private static final SwerveModuleState[] EMPTY_STATES = new SwerveModuleState[] {};
+
+  // Vision fusion. Odometry poses are kept long enough to cover the worst-case camera latency.
+  private static final double POSE_HISTORY_SECS = 2.0;
+  private static final double ODOMETRY_XY_STD_DEV = 0.1; // meters
+  private static final double ODOMETRY_THETA_STD_DEV = 0.1; // radians
+
   private final GyroIO gyroIO;
   private final GyroIOInputsAutoLogged gyroInputs = new GyroIOInputsAutoLogged();
   private final int kNumModules = 4;
   private final Module[] modules = new Module[kNumModules]; // FL, FR, BL, BR
+  private final LoopTiming.Probe periodicTiming = LoopTiming.probe("Drive");
 
   private SwerveDriveKinematics kinematics = new SwerveDriveKinematics(getModuleTranslations());
-  private Pose2d pose = new Pose2d();
-  private Rotation2d lastGyroRotation = new Rotation2d();
-
-  private Twist2d fieldVelocity = new Twist2d(); // TJG
+  private Pose2d pose = new Pose2d(); // Odometry fused with vision
+  private Pose2d odometryPose = new Pose2d(); // Odometry only, used to replay vision corrections
+  private final PoseHistoryBuffer poseHistory =
+      new PoseHistoryBuffer(
+          POSE_HISTORY_SECS,
+          (int) Math.ceil(POSE_HISTORY_SECS * Constants.DriveConstants.kODOMETRY_FREQUENCY) + 50);
+  private double lastGyroYawRad = 0.0;
+  private double[] lastModulePositionsMeters = new double[] {0.0, 0.0, 0.0, 0.0};
+
+  // Preallocated buffers for the periodic loop, so steady-state driving does not generate garbage
+  private final SwerveModuleState[] setpointStates = new SwerveModuleState[4];
+  private final SwerveModuleState[] optimizedSetpointStates = new SwerveModuleState[4];
+  private final SwerveModuleState[] measuredStates = new SwerveModuleState[4];
+
+  // Limits module acceleration and steering rate between the requested speeds and the modules
+  private final SwerveSetpointGenerator setpointGenerator =
+      new SwerveSetpointGenerator(
+          MODULE_X,
+          MODULE_Y,
+          Constants.DriveConstants.kMAX_MODULE_ACCELERATION,
+          Constants.DriveConstants.kMAX_AZIMUTH_VELOCITY);
+
+  private double outputScale = 1.0; // Set by the power governor when the battery sags
+
+  private final Twist2d fieldVelocity = new Twist2d(); // TJG, updated in place
   private ChassisSpeeds setpoint = new ChassisSpeeds(); // TJG
 
-  SwerveModulePosition[] positions =
-      new SwerveModulePosition[] {
-        new SwerveModulePosition(), new SwerveModulePosition(),
-        new SwerveModulePosition(), new SwerveModulePosition()
-      };
-
-  // PhotonInfo pi = new PhotonInfo();
-  SwerveDrivePoseEstimator kalman =
-      new SwerveDrivePoseEstimator(kinematics, lastGyroRotation, positions, pose);
-
   private final LoggedDashboardNumber moduleTestIndex = // drive module to test with voltage ramp
       new LoggedDashboardNumber("Module Test Index (0-3)", 0);
 
@@ -81,6 +118,14 @@ public class Drive extends SubsystemBase {
     modules[1] = new Module(frModuleIO, 1);
     modules[2] = new Module(blModuleIO, 2);
     modules[3] = new Module(brModuleIO, 3);
+    for (int i = 0; i < kNumModules; i++) {
+      setpointStates[i] = new SwerveModuleState();
+      measuredStates[i] = modules[i].getState();
+    }
+
+    // Start odometry thread once every signal has been registered
+    PhoenixOdometryThread.getInstance().start();
+    ParallelIOUpdater.register(this::updateInputs);
 
     // Configure AutoBuilder for PathPlanner
     AutoBuilder.configureHolonomic(
@@ -106,9 +151,24 @@ public class Drive extends SubsystemBase {
         });
   }
 
-  public void periodic() {
-    gyroIO.updateInputs(gyroInputs);
+  /**
+   * Reads the gyro and modules. Runs on the ParallelIOUpdater pool, holding the odometry lock so
+   * every module and the gyro report the same odometry samples.
+   */
+  public void updateInputs() {
+    odometryLock.lock(); // Prevents odometry updates while reading data
+    try {
+      gyroIO.updateInputs(gyroInputs);
+      for (var module : modules) {
+        module.updateInputs();
+      }
+    } finally {
+      odometryLock.unlock();
+    }
+  }
 
+  public void periodic() {
+    periodicTiming.start();
     Logger.processInputs("Drive/Gyro", gyroInputs);
     for (var module : modules) {
       module.periodic();
@@ -121,16 +181,14 @@ public class Drive extends SubsystemBase {
     }
     // Log empty setpoint states when disabled
     if (DriverStation.isDisabled()) {
-      Logger.recordOutput("SwerveStates/Setpoints", new SwerveModuleState[] {});
-      Logger.recordOutput("SwerveStates/SetpointsOptimized", new SwerveModuleState[] {});
+      setpointGenerator.reset();
+      Logger.recordOutput("SwerveStates/Setpoints", EMPTY_STATES);
+      Logger.recordOutput("SwerveStates/SetpointsOptimized", EMPTY_STATES);
     } else {
       // Calculate module setpoints
-      ChassisSpeeds discreteSpeeds = ChassisSpeeds.discretize(setpoint, Constants.loopPeriodSecs);
-      SwerveModuleState[] setpointStates = kinematics.toSwerveModuleStates(discreteSpeeds);
-      SwerveDriveKinematics.desaturateWheelSpeeds(setpointStates, MAX_LINEAR_SPEED);
+      calculateSetpointStates();
 
       // Send setpoints to modules
-      SwerveModuleState[] optimizedSetpointStates = new SwerveModuleState[4];
       for (int i = 0; i < 4; i++) {
         // The module returns the optimized state, useful for logging
         optimizedSetpointStates[i] = modules[i].runSetpoint(setpointStates[i]);
@@ -141,57 +199,173 @@ public class Drive extends SubsystemBase {
       Logger.recordOutput("SwerveStates/SetpointsOptimized", optimizedSetpointStates);
     }
 
-    SwerveModulePosition[] wheelAbsolutes = new SwerveModulePosition[4];
-    for (int i = 0; i < kNumModules; i++) {
-      wheelAbsolutes[i] = modules[i].getPosition();
-    }
-
-    pose = kalman.getEstimatedPosition();
-    // updateVision(wheelAbsolutes);
-
     // Log measured states
-    SwerveModuleState[] measuredStates = new SwerveModuleState[4];
     for (int i = 0; i < kNumModules; i++) {
       measuredStates[i] = modules[i].getState();
     }
     Logger.recordOutput("SwerveStates/Measured", measuredStates);
 
-    // Update odometry
-    SwerveModulePosition[] wheelDeltas = new SwerveModulePosition[4];
+    // Update odometry, replaying every sample taken by the odometry thread since the last
+    // cycle so that fast rotations are integrated at the sample rate rather than the loop rate.
+    int sampleCount = modules[0].getOdometrySampleCount(); // All signals are sampled together
+    for (int i = 1; i < kNumModules; i++) {
+      sampleCount = Math.min(sampleCount, modules[i].getOdometrySampleCount());
+    }
+    double[] sampleTimestamps = modules[0].getOdometryTimestamps();
+    double x = odometryPose.getX();
+    double y = odometryPose.getY();
+    double theta = odometryPose.getRotation().getRadians();
+    for (int i = 0; i < sampleCount; i++) {
+      // The twist represents the motion of the robot since the last
+      // sample in x, y, and theta based only on the modules,
+      // without the gyro. The gyro is always disconnected in simulation.
+      double twistDx = 0.0;
+      double twistDy = 0.0;
+      double twistDtheta = 0.0;
+      for (int moduleIndex = 0; moduleIndex < kNumModules; moduleIndex++) {
+        double positionMeters = modules[moduleIndex].getOdometryPositionsMeters()[i];
+        double angleRad = modules[moduleIndex].getOdometryAnglesRad()[i];
+        double deltaMeters = positionMeters - lastModulePositionsMeters[moduleIndex];
+        lastModulePositionsMeters[moduleIndex] = positionMeters;
+
+        double moduleDx = deltaMeters * Math.cos(angleRad);
+        double moduleDy = deltaMeters * Math.sin(angleRad);
+        twistDx += moduleDx;
+        twistDy += moduleDy;
+        twistDtheta += MODULE_X[moduleIndex] * moduleDy - MODULE_Y[moduleIndex] * moduleDx;
+      }
+      twistDx /= kNumModules;
+      twistDy /= kNumModules;
+      twistDtheta /= MODULE_RADIUS_SQ_SUM;
+
+      if (gyroInputs.connected) {
+        // If the gyro is connected, replace the theta component of the twist
+        // with the change in angle since the last sample.
+        double currentGyroYawRad =
+            i < gyroInputs.odometryYawPositionsRad.length
+                ? gyroInputs.odometryYawPositionsRad[i]
+                : gyroInputs.yawPositionRad;
+        twistDtheta = MathUtil.angleModulus(currentGyroYawRad - lastGyroYawRad);
+        lastGyroYawRad = currentGyroYawRad;
+      } else {
+        // no gyro in simulation, faking using odometry twist
+        lastGyroYawRad += twistDtheta;
+      }
+
+      // Same as Pose2d.exp(Twist2d), applied to the primitive pose
+      double sinDtheta = Math.sin(twistDtheta);
+      double cosDtheta = Math.cos(twistDtheta);
+      double s;
+      double c;
+      if (Math.abs(twistDtheta) < 1E-9) {
+        s = 1.0 - 1.0 / 6.0 * twistDtheta * twistDtheta;
+        c = 0.5 * twistDtheta;
+      } else {
+        s = sinDtheta / twistDtheta;
+        c = (1 - cosDtheta) / twistDtheta;
+      }
+      double translationX = twistDx * s - twistDy * c;
+      double translationY = twistDx * c + twistDy * s;
+      double cosTheta = Math.cos(theta);
+      double sinTheta = Math.sin(theta);
+      x += translationX * cosTheta - translationY * sinTheta;
+      y += translationX * sinTheta + translationY * cosTheta;
+      theta = MathUtil.angleModulus(theta + twistDtheta);
+      poseHistory.addSample(sampleTimestamps[i], x, y, theta);
+    }
+    if (sampleCount > 0) {
+      // Apply the same motion to the fused estimate, same as
+      // pose.plus(new Transform2d(odometryPose, newOdometryPose)) without the intermediates
+      double odometryCos = odometryPose.getRotation().getCos();
+      double odometrySin = odometryPose.getRotation().getSin();
+      double fieldDx = x - odometryPose.getX();
+      double fieldDy = y - odometryPose.getY();
+      double robotDx = fieldDx * odometryCos + fieldDy * odometrySin;
+      double robotDy = -fieldDx * odometrySin + fieldDy * odometryCos;
+      double poseCos = pose.getRotation().getCos();
+      double poseSin = pose.getRotation().getSin();
+      pose =
+          new Pose2d(
+              pose.getX() + robotDx * poseCos - robotDy * poseSin,
+              pose.getY() + robotDx * poseSin + robotDy * poseCos,
+              new Rotation2d(
+                  MathUtil.angleModulus(
+                      pose.getRotation().getRadians()
+                          + theta
+                          - odometryPose.getRotation().getRadians())));
+      odometryPose = new Pose2d(x, y, new Rotation2d(theta));
+    }
+    Logger.recordOutput("Odometry/OdometryOnly", odometryPose);
+
+    // Update field velocity, same as SwerveDriveKinematics.toChassisSpeeds but in place
+    double robotVx = 0.0;
+    double robotVy = 0.0;
+    double robotOmega = 0.0;
     for (int i = 0; i < kNumModules; i++) {
-      wheelDeltas[i] = modules[i].getPositionDelta();
+      double moduleVx = measuredStates[i].speedMetersPerSecond * measuredStates[i].angle.getCos();
+      double moduleVy = measuredStates[i].speedMetersPerSecond * measuredStates[i].angle.getSin();
+      robotVx += moduleVx;
+      robotVy += moduleVy;
+      robotOmega += MODULE_X[i] * moduleVy - MODULE_Y[i] * moduleVx;
     }
+    robotVx /= kNumModules;
+    robotVy /= kNumModules;
+    robotOmega /= MODULE_RADIUS_SQ_SUM;
+
+    double cosTheta = pose.getRotation().getCos();
+    double sinTheta = pose.getRotation().getSin();
+    fieldVelocity.dx = robotVx * cosTheta - robotVy * sinTheta;
+    fieldVelocity.dy = robotVx * sinTheta + robotVy * cosTheta;
+    fieldVelocity.dtheta = gyroInputs.connected ? gyroInputs.yawVelocityRadPerSec : robotOmega;
+    periodicTiming.stop();
+  }
 
-    // The twist represents the motion of the robot since the last
-    // loop cycle in x, y, and theta based only on the modules,
-    // without the gyro. The gyro is always disconnected in simulation.
-    var twist = kinematics.toTwist2d(wheelDeltas);
-    if (gyroInputs.connected) {
-      // If the gyro is connected, replace the theta component of the twist
-      // with the change in angle since the last loop cycle.
-      Rotation2d currentGyroRotation = new Rotation2d(gyroInputs.yawPositionRad);
-      twist =
-          new Twist2d(twist.dx, twist.dy, currentGyroRotation.minus(lastGyroRotation).getRadians());
-      lastGyroRotation = currentGyroRotation;
+  /**
+   * Converts the requested chassis speeds into {@link #setpointStates} in place. This is the same
+   * as ChassisSpeeds.discretize, SwerveDriveKinematics.toSwerveModuleStates and
+   * SwerveDriveKinematics.desaturateWheelSpeeds, without the per-loop allocations, followed by the
+   * setpoint generator limiting how fast the module states may change.
+   */
+  private void calculateSetpointStates() {
+    // Discretize: find the constant-curvature speeds that reach the requested displacement
+    // after one loop period (same as Pose2d.log)
+    double dt = Constants.loopPeriodSecs;
+    double dx = setpoint.vxMetersPerSecond * dt;
+    double dy = setpoint.vyMetersPerSecond * dt;
+    double dtheta = setpoint.omegaRadiansPerSecond * dt;
+    double halfDtheta = 0.5 * dtheta;
+    double cosMinusOne = Math.cos(dtheta) - 1;
+    double halfThetaByTanOfHalfDtheta;
+    if (Math.abs(cosMinusOne) < 1E-9) {
+      halfThetaByTanOfHalfDtheta = 1.0 - 1.0 / 12.0 * dtheta * dtheta;
     } else {
-      // no gyro in simulation, faking using odometry twist
-      lastGyroRotation = new Rotation2d(twist.dtheta + lastGyroRotation.getRadians());
+      halfThetaByTanOfHalfDtheta = -(halfDtheta * Math.sin(dtheta)) / cosMinusOne;
+    }
+    double vx = (dx * halfThetaByTanOfHalfDtheta + dy * halfDtheta) / dt;
+    double vy = (dy * halfThetaByTanOfHalfDtheta - dx * halfDtheta) / dt;
+    double omega = setpoint.omegaRadiansPerSecond;
+
+    // Desaturate wheel speeds. Scaling every module equally is the same as scaling the chassis
+    // speeds, which keeps the request consistent for the setpoint generator.
+    // The speed limit follows the power governor's output scale.
+    double maxSpeed = 0.0;
+    for (int i = 0; i < kNumModules; i++) {
+      maxSpeed = Math.max(maxSpeed, Math.hypot(vx - omega * MODULE_Y[i], vy + omega * MODULE_X[i]));
+    }
+    double speedLimit = MAX_LINEAR_SPEED * outputScale;
+    if (maxSpeed > speedLimit) {
+      double scale = speedLimit / maxSpeed;
+      vx *= scale;
+      vy *= scale;
+      omega *= scale;
     }
 
-    pose = pose.exp(twist);
-
-    // Update field velocity
-    ChassisSpeeds chassisSpeeds = kinematics.toChassisSpeeds(measuredStates);
-    Translation2d linearFieldVelocity =
-        new Translation2d(chassisSpeeds.vxMetersPerSecond, chassisSpeeds.vyMetersPerSecond)
-            .rotateBy(getRotation());
-    fieldVelocity =
-        new Twist2d(
-            linearFieldVelocity.getX(),
-            linearFieldVelocity.getY(),
-            gyroInputs.connected
-                ? gyroInputs.yawVelocityRadPerSec
-                : chassisSpeeds.omegaRadiansPerSecond);
+    // Limit module acceleration and steering rate, then run the inverse kinematics. Modules hold
+    // their last headings when asked to stop.
+    long startTimeUs = Logger.getRealTimestamp();
+    setpointGenerator.generate(vx, vy, omega, dt, setpointStates);
+    Logger.recordOutput(
+        "Drive/SetpointGeneratorMs", (Logger.getRealTimestamp() - startTimeUs) / 1000.0);
   }
 
   /**
@@ -203,6 +377,20 @@ public class Drive extends SubsystemBase {
     setpoint = speeds;
   }
 
+  /**
+   * Scales the max module speed and acceleration, used by the power governor to reduce the current
+   * drawn by the drive when the battery sags.
+   *
+   * @param scale Fraction of the normal limits, between 0 and 1
+   */
+  public void setOutputScale(double scale) {
+    if (scale != outputScale) {
+      outputScale = scale;
+      setpointGenerator.setMaxModuleAcceleration(
+          Constants.DriveConstants.kMAX_MODULE_ACCELERATION * scale);
+    }
+  }
+
   /** Stops the drive. */
   public void stop() {
     runVelocity(new ChassisSpeeds());
@@ -214,10 +402,12 @@ public class Drive extends SubsystemBase {
    */
   public void stopWithX() {
     Rotation2d[] headings = new Rotation2d[4];
+    Translation2d[] moduleTranslations = getModuleTranslations();
     for (int i = 0; i < 4; i++) {
-      headings[i] = getModuleTranslations()[i].getAngle();
+      headings[i] = moduleTranslations[i].getAngle();
     }
     kinematics.resetHeadings(headings);
+    setpointGenerator.setHoldHeadings(headings);
     stop();
   }
 
@@ -260,11 +450,10 @@ public class Drive extends SubsystemBase {
   /** Returns the module states (turn angles and drive velocities) for all of the modules. */
   @AutoLogOutput(key = "SwerveStates/Measured")
   private SwerveModuleState[] getModuleStates() {
-    SwerveModuleState[] states = new SwerveModuleState[4];
     for (int i = 0; i < 4; i++) {
-      states[i] = modules[i].getState();
+      measuredStates[i] = modules[i].getState();
     }
-    return states;
+    return measuredStates;
   }
 
   /** Returns the current odometry pose. */
@@ -282,6 +471,49 @@ public class Drive extends SubsystemBase {
   /** Resets the current odometry pose. */
   public void setPose(Pose2d pose) {
     this.pose = pose;
+    this.odometryPose = pose;
+    poseHistory.clear();
+  }
+
+  /**
+   * Adds a vision pose measurement. The measurement is compared against the estimate at the time
+   * the image was captured, and the odometry recorded since then is replayed on top of the
+   * correction, so camera latency does not pull the pose backwards.
+   *
+   * @param visionPose Robot pose measured by vision
+   * @param timestampSecs Time the image was captured, in seconds
+   * @param xyStdDev Standard deviation of the measured translation in meters
+   * @param thetaStdDev Standard deviation of the measured heading in radians
+   */
+  public void addVisionMeasurement(
+      Pose2d visionPose, double timestampSecs, double xyStdDev, double thetaStdDev) {
+    // Odometry pose at the capture time, skipping measurements older than the history
+    var sample = poseHistory.getSample(timestampSecs);
+    if (sample.isEmpty()) {
+      return;
+    }
+    Transform2d sampleToOdometry = new Transform2d(sample.get(), odometryPose);
+    Transform2d odometryToSample = new Transform2d(odometryPose, sample.get());
+    Pose2d estimateAtTime = pose.plus(odometryToSample);
+
+    // Scale the correction by a steady-state Kalman gain for each axis
+    Transform2d correction = new Transform2d(estimateAtTime, visionPose);
+    double xyGain = kalmanGain(ODOMETRY_XY_STD_DEV, xyStdDev);
+    double thetaGain = kalmanGain(ODOMETRY_THETA_STD_DEV, thetaStdDev);
+    Transform2d scaledCorrection =
+        new Transform2d(
+            new Translation2d(correction.getX() * xyGain, correction.getY() * xyGain),
+            new Rotation2d(correction.getRotation().getRadians() * thetaGain));
+
+    // Correct the old estimate, then replay odometry since the capture time
+    pose = estimateAtTime.plus(scaledCorrection).plus(sampleToOdometry);
+    Logger.recordOutput("Odometry/VisionMeasurement", visionPose);
+  }
+
+  private static double kalmanGain(double stateStdDev, double measurementStdDev) {
+    double q = stateStdDev * stateStdDev;
+    double r = measurementStdDev * measurementStdDev;
+    return q == 0.0 ? 0.0 : q / (q + Math.sqrt(q * r));
   }
 
   public void resetFieldHeading() {
@@ -310,10 +542,25 @@ public class Drive extends SubsystemBase {
 
   /**
    * TJG Returns the measured X, Y, and theta field velocities in meters per sec. The components of
-   * the twist are velocities and NOT changes in position.
+   * the twist are velocities and NOT changes in position. Returns a new copy, callers that run
+   * every loop can use {@link #getFieldVelocity(Twist2d)} instead.
    */
   public Twist2d getFieldVelocity() {
-    return fieldVelocity;
+    return getFieldVelocity(new Twist2d());
+  }
+
+  /**
+   * Copies the measured field velocities into a twist owned by the caller, so reading them every
+   * loop does not allocate.
+   *
+   * @param out Twist to write the velocities to
+   * @return out
+   */
+  public Twist2d getFieldVelocity(Twist2d out) {
+    out.dx = fieldVelocity.dx;
+    out.dy = fieldVelocity.dy;
+    out.dtheta = fieldVelocity.dtheta;
+    return out;
   }
 
   /** Returns the current yaw velocity (Z rotation) in radians per second. TJG */
@@ -336,12 +583,4 @@ public class Drive extends SubsystemBase {
   public double getYaw() {
     return pose.getRotation().getRadians();
   }
-
-  // public void updateVision(SwerveModulePosition[] wheelAbsolutes) {
-  //   // setPose(pi.getTagPose(getYaw(), getPose()));
-  //   if (pi.getIDOne() != -1) {
-  //     kalman.addVisionMeasurement(pi.getTagPose(getYaw(), getPose()), Timer.getFPGATimestamp());
-  //   }
-  //   kalman.updateWithTime(Timer.getFPGATimestamp(), lastGyroRotation, wheelAbsolutes);
-  // }
 }
@@ -20,6 +20,8 @@ public interface GyroIO {
     public double rollVelocityRadPerSec = 0.0;
     public double pitchVelocityRadPerSec = 0.0;
     public double yawVelocityRadPerSec = 0.0; // current yaw velocity, positive turn to left.
+    public double[] odometryYawTimestamps = new double[] {};
+    public double[] odometryYawPositionsRad = new double[] {}; // samples from odometry thread
   }
 
   default void resetIMU() {}
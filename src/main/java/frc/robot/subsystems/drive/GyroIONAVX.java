@@ -4,10 +4,13 @@ import com.kauailabs.navx.frc.AHRS;
 import edu.wpi.first.wpilibj.SPI;
 import frc.robot.Constants;
 import java.util.Objects;
+import java.util.Queue;
 
 /** Hardware interface for the NAVX 3 axis gyro */
 public class GyroIONAVX implements GyroIO {
   private final AHRS navx;
+  private final Queue<Double> yawTimestampQueue;
+  private final Queue<Double> yawPositionQueue;
 
   /** Constructor to initialize the NAVX */
   public GyroIONAVX() {
@@ -16,6 +19,9 @@ public class GyroIONAVX implements GyroIO {
     } else {
       throw new RuntimeException("Invalid robot for NAVX");
     }
+
+    yawTimestampQueue = PhoenixOdometryThread.getInstance().makeTimestampQueue();
+    yawPositionQueue = PhoenixOdometryThread.getInstance().registerSignal(navx::getAngle);
   }
 
   /**
@@ -28,6 +34,13 @@ public class GyroIONAVX implements GyroIO {
     // navx uses positive yaw turn to right, so flip sign
     inputs.yawPositionRad = -Math.toRadians(navx.getAngle());
     inputs.yawVelocityRadPerSec = -Math.toRadians(navx.getRate());
+
+    inputs.odometryYawTimestamps =
+        yawTimestampQueue.stream().mapToDouble((Double value) -> value).toArray();
+    inputs.odometryYawPositionsRad =
+        yawPositionQueue.stream().mapToDouble((Double value) -> -Math.toRadians(value)).toArray();
+    yawTimestampQueue.clear();
+    yawPositionQueue.clear();
   }
 
   @Override
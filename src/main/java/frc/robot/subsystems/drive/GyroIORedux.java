@@ -1,12 +1,15 @@
 package frc.robot.subsystems.drive;
 
 import com.reduxrobotics.sensors.canandgyro.Canandgyro;
+import java.util.Queue;
 
 /**
  * Hardware interface for the Reduxrobotics Can-and-gyro IMU
  */
 public class GyroIORedux implements GyroIO {
     private final Canandgyro gyro;
+    private final Queue<Double> yawTimestampQueue;
+    private final Queue<Double> yawPositionQueue;
 
     /**
      * Creates a new gyro, with period 0.02 on yaw updates, and 0.1 on status updates.
@@ -22,6 +25,9 @@ public class GyroIORedux implements GyroIO {
         settings.setStatusFramePeriod(0.1);
 
         gyro.setSettings(settings,0.050);
+
+        yawTimestampQueue = PhoenixOdometryThread.getInstance().makeTimestampQueue();
+        yawPositionQueue = PhoenixOdometryThread.getInstance().registerSignal(gyro::getYaw);
     }
 
     @Override
@@ -29,6 +35,15 @@ public class GyroIORedux implements GyroIO {
         inputs.connected = gyro.isConnected();
         inputs.yawPositionRad = -Math.toRadians(gyro.getYaw());
         inputs.yawVelocityRadPerSec = -Math.toRadians(gyro.getAngularVelocityYaw());
+
+        inputs.odometryYawTimestamps =
+            yawTimestampQueue.stream().mapToDouble((Double value) -> value).toArray();
+        inputs.odometryYawPositionsRad =
+            yawPositionQueue.stream()
+                .mapToDouble((Double value) -> -Math.toRadians(value))
+                .toArray();
+        yawTimestampQueue.clear();
+        yawPositionQueue.clear();
     }
 
     @Override
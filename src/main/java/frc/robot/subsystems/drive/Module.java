@@ -13,6 +13,7 @@
 
 package frc.robot.subsystems.drive;
 
+import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.controller.PIDController;
 import edu.wpi.first.math.controller.SimpleMotorFeedforward;
 import edu.wpi.first.math.geometry.Rotation2d;
@@ -25,24 +26,43 @@ public class Module {
   private final ModuleIO io;
   private final ModuleIOInputsAutoLogged inputs = new ModuleIOInputsAutoLogged();
   private final int index;
+  private final String inputsKey;
 
   private final SimpleMotorFeedforward driveFeedforward;
   private final PIDController driveFeedback;
   private final PIDController turnFeedback;
+  private final boolean onboardControl; // Loops run on the motor controllers instead of here
   private Rotation2d angleSetpoint = null; // Setpoint for closed loop control, null for open loop
-  private Double speedSetpoint = null; // Setpoint for closed loop control, null for open loop
+  private double speedSetpoint = 0.0; // Setpoint for closed loop control
+  private boolean speedClosedLoop = false; // False for open loop drive control
   private Rotation2d turnRelativeOffset = null; // Relative + Offset = Absolute
   private double lastPositionMeters = 0.0; // Used for delta calculation
 
+  // Buffers reused every cycle so the drive loop does not generate garbage. Objects returned from
+  // getters are overwritten on the next call, so callers must copy them if they need to keep them.
+  private Rotation2d angle = new Rotation2d();
+  private final SwerveModulePosition position = new SwerveModulePosition();
+  private final SwerveModulePosition positionDelta = new SwerveModulePosition();
+  private final SwerveModuleState state = new SwerveModuleState();
+  private final SwerveModuleState optimizedState = new SwerveModuleState();
+  private Rotation2d flipSource = null; // Last setpoint angle that was flipped
+  private Rotation2d flipped = null; // flipSource turned by 180 degrees
+  private double[] odometryPositionsMeters = new double[20];
+  private double[] odometryAnglesRad = new double[20];
+  private int odometrySampleCount = 0;
+
   public Module(ModuleIO io, int index) {
     this.io = io;
     this.index = index;
+    this.inputsKey = "Drive/Module" + Integer.toString(index);
 
     // Switch constants based on mode (the physics simulator is treated as a
     // separate robot with different tuning)
     switch (Constants.getRobot()) {
       case ROBOT_REAL:
       case ROBOT_REPLAY:
+        // Replay takes the same control path as the real robot so its outputs match the log
+        onboardControl = Constants.ModuleConstants.kUseOnboardControl;
         driveFeedforward =
             new SimpleMotorFeedforward(
                 Constants.ModuleConstants.kDrivingStaticFF,
@@ -60,11 +80,13 @@ public class Module {
         break;
       case ROBOT_FOOTBALL:
       case ROBOT_SIM:
+        onboardControl = false;
         driveFeedforward = new SimpleMotorFeedforward(0.0, 0.13);
         driveFeedback = new PIDController(0.1, 0.0, 0.0);
         turnFeedback = new PIDController(10.0, 0.0, 0.0);
         break;
       default:
+        onboardControl = false;
         driveFeedforward = new SimpleMotorFeedforward(0.0, 0.0);
         driveFeedback = new PIDController(0.0, 0.0, 0.0);
         turnFeedback = new PIDController(0.0, 0.0, 0.0);
@@ -75,9 +97,16 @@ public class Module {
     setBrakeMode(true);
   }
 
-  public void periodic() {
+  /**
+   * Update inputs without running the rest of the periodic logic. This is useful since these
+   * updates need to be properly thread-locked.
+   */
+  public void updateInputs() {
     io.updateInputs(inputs);
-    Logger.processInputs("Drive/Module" + Integer.toString(index), inputs);
+  }
+
+  public void periodic() {
+    Logger.processInputs(inputsKey, inputs);
 
     // On first cycle, reset relative turn encoder
     // Wait until absolute angle is nonzero in case it wasn't initialized yet
@@ -85,40 +114,90 @@ public class Module {
       turnRelativeOffset = inputs.turnAbsolutePosition.minus(inputs.turnPosition);
     }
 
+    // Calculate the turn angle once per cycle
+    if (turnRelativeOffset != null) {
+      angle = inputs.turnPosition.plus(turnRelativeOffset);
+    }
+
     // Run closed loop turn control
     if (angleSetpoint != null) {
-      io.setTurnVoltage(
-          turnFeedback.calculate(getAngle().getRadians(), angleSetpoint.getRadians()));
+      double turnErrorRad;
+      if (onboardControl) {
+        // The motor controller runs the loop against its relative encoder
+        if (turnRelativeOffset != null) {
+          io.setTurnPosition(angleSetpoint.minus(turnRelativeOffset));
+        }
+        turnErrorRad = MathUtil.angleModulus(angleSetpoint.getRadians() - getAngle().getRadians());
+      } else {
+        io.setTurnVoltage(
+            turnFeedback.calculate(getAngle().getRadians(), angleSetpoint.getRadians()));
+        turnErrorRad = turnFeedback.getPositionError();
+      }
 
       // Run closed loop drive control
       // Only allowed if closed loop turn control is running
-      if (speedSetpoint != null) {
+      if (speedClosedLoop) {
         // Scale velocity based on turn error
         //
         // When the error is 90°, the velocity setpoint should be 0. As the wheel turns
         // towards the setpoint, its velocity should increase. This is achieved by
         // taking the component of the velocity in the direction of the setpoint.
-        double adjustSpeedSetpoint = speedSetpoint * Math.cos(turnFeedback.getPositionError());
+        double adjustSpeedSetpoint = speedSetpoint * Math.cos(turnErrorRad);
 
         // Run drive controller
         double velocityRadPerSec =
             adjustSpeedSetpoint / Constants.ModuleConstants.kWheelRadiusMeters;
-        io.setDriveVoltage(
-            driveFeedforward.calculate(velocityRadPerSec)
-                + driveFeedback.calculate(inputs.driveVelocityRadPerSec, velocityRadPerSec));
+        if (onboardControl) {
+          io.setDriveVelocity(velocityRadPerSec);
+        } else {
+          io.setDriveVoltage(
+              driveFeedforward.calculate(velocityRadPerSec)
+                  + driveFeedback.calculate(inputs.driveVelocityRadPerSec, velocityRadPerSec));
+        }
       }
     }
+
+    // Calculate positions for odometry
+    int sampleCount = inputs.odometryTimestamps.length; // All signals are sampled together
+    if (sampleCount > odometryPositionsMeters.length) {
+      odometryPositionsMeters = new double[sampleCount];
+      odometryAnglesRad = new double[sampleCount];
+    }
+    double offsetRad = turnRelativeOffset == null ? 0.0 : turnRelativeOffset.getRadians();
+    for (int i = 0; i < sampleCount; i++) {
+      odometryPositionsMeters[i] =
+          inputs.odometryDrivePositionsRad[i] * Constants.ModuleConstants.kWheelRadiusMeters;
+      odometryAnglesRad[i] =
+          MathUtil.angleModulus(inputs.odometryTurnPositions[i].getRadians() + offsetRad);
+    }
+    odometrySampleCount = sampleCount;
   }
 
-  /** Runs the module with the specified setpoint state. Returns the optimized state. */
+  /**
+   * Runs the module with the specified setpoint state. Returns the optimized state, which is reused
+   * on the next call.
+   */
   public SwerveModuleState runSetpoint(SwerveModuleState state) {
-    // Optimize state based on current angle
+    // Optimize state based on current angle, same as SwerveModuleState.optimize but in place
     // Controllers run in "periodic" when the setpoint is not null
-    var optimizedState = SwerveModuleState.optimize(state, getAngle());
+    double deltaRad = MathUtil.angleModulus(state.angle.getRadians() - getAngle().getRadians());
+    if (Math.abs(deltaRad) > Math.PI / 2.0) {
+      optimizedState.speedMetersPerSecond = -state.speedMetersPerSecond;
+      if (!state.angle.equals(flipSource)) {
+        // Only rebuilt when the setpoint angle changes, a steady setpoint reuses it
+        flipSource = state.angle;
+        flipped = new Rotation2d(-state.angle.getCos(), -state.angle.getSin());
+      }
+      optimizedState.angle = flipped;
+    } else {
+      optimizedState.speedMetersPerSecond = state.speedMetersPerSecond;
+      optimizedState.angle = state.angle;
+    }
 
     // Update setpoints, controllers run in "periodic"
     angleSetpoint = optimizedState.angle;
     speedSetpoint = optimizedState.speedMetersPerSecond;
+    speedClosedLoop = true;
 
     return optimizedState;
   }
@@ -130,7 +209,7 @@ public class Module {
 
     // Open loop drive control
     io.setDriveVoltage(volts);
-    speedSetpoint = null;
+    speedClosedLoop = false;
   }
 
   /** Runs the module drive motor with no turn command. */
@@ -140,7 +219,7 @@ public class Module {
 
     // Open loop drive control
     io.setDriveVoltage(volts);
-    speedSetpoint = null;
+    speedClosedLoop = false;
   }
 
   /** Runs the module turn motor with the specified voltage with no drive command */
@@ -150,7 +229,7 @@ public class Module {
     io.setTurnVoltage(volts);
 
     // no drive command.
-    speedSetpoint = null;
+    speedClosedLoop = false;
   }
 
   /** Disables all outputs to motors. */
@@ -160,7 +239,7 @@ public class Module {
 
     // Disable closed loop control for turn and drive
     angleSetpoint = null;
-    speedSetpoint = null;
+    speedClosedLoop = false;
   }
 
   /** Sets whether brake mode is enabled. */
@@ -171,11 +250,7 @@ public class Module {
 
   /** Returns the current turn angle of the module. */
   public Rotation2d getAngle() {
-    if (turnRelativeOffset == null) {
-      return new Rotation2d();
-    } else {
-      return inputs.turnPosition.plus(turnRelativeOffset);
-    }
+    return angle;
   }
 
   /** Returns the current drive position of the module in meters. */
@@ -188,21 +263,54 @@ public class Module {
     return inputs.driveVelocityRadPerSec * Constants.ModuleConstants.kWheelRadiusMeters;
   }
 
-  /** Returns the module position (turn angle and drive position). */
+  /** Returns the module position (turn angle and drive position). The object is reused. */
   public SwerveModulePosition getPosition() {
-    return new SwerveModulePosition(getPositionMeters(), getAngle());
+    position.distanceMeters = getPositionMeters();
+    position.angle = getAngle();
+    return position;
   }
 
-  /** Returns the module position delta since the last call to this method. */
+  /**
+   * Returns the module position delta since the last call to this method. The object is reused.
+   */
   public SwerveModulePosition getPositionDelta() {
-    var delta = new SwerveModulePosition(getPositionMeters() - lastPositionMeters, getAngle());
+    positionDelta.distanceMeters = getPositionMeters() - lastPositionMeters;
+    positionDelta.angle = getAngle();
     lastPositionMeters = getPositionMeters();
-    return delta;
+    return positionDelta;
   }
 
-  /** Returns the module state (turn angle and drive velocity). */
+  /** Returns the module state (turn angle and drive velocity). The object is reused. */
   public SwerveModuleState getState() {
-    return new SwerveModuleState(getVelocityMetersPerSec(), getAngle());
+    state.speedMetersPerSecond = getVelocityMetersPerSec();
+    state.angle = getAngle();
+    return state;
+  }
+
+  /** Returns the number of odometry samples received this cycle. */
+  public int getOdometrySampleCount() {
+    return odometrySampleCount;
+  }
+
+  /**
+   * Returns the drive positions in meters of the odometry samples received this cycle. Only the
+   * first {@link #getOdometrySampleCount()} entries are valid.
+   */
+  public double[] getOdometryPositionsMeters() {
+    return odometryPositionsMeters;
+  }
+
+  /**
+   * Returns the turn angles in radians of the odometry samples received this cycle. Only the first
+   * {@link #getOdometrySampleCount()} entries are valid.
+   */
+  public double[] getOdometryAnglesRad() {
+    return odometryAnglesRad;
+  }
+
+  /** Returns the timestamps of the samples received this cycle. */
+  public double[] getOdometryTimestamps() {
+    return inputs.odometryTimestamps;
   }
 
   /** Returns the drive velocity in radians/sec. */
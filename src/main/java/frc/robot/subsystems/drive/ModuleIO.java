@@ -36,6 +36,11 @@ public interface ModuleIO {
     public double turnVelocityRadPerSec = 0.0;
     public double turnAppliedVolts = 0.0;
     public double[] turnCurrentAmps = new double[] {};
+
+    // High-frequency samples from the odometry thread, oldest first.
+    public double[] odometryTimestamps = new double[] {};
+    public double[] odometryDrivePositionsRad = new double[] {};
+    public Rotation2d[] odometryTurnPositions = new Rotation2d[] {};
   }
 
   /** Updates the set of loggable inputs. */
@@ -47,6 +52,15 @@ public interface ModuleIO {
   /** Run the turn motor at the specified voltage. */
   public default void setTurnVoltage(double volts) {}
 
+  /** Run the drive motor at the specified velocity using the motor controller's onboard loop. */
+  public default void setDriveVelocity(double velocityRadPerSec) {}
+
+  /**
+   * Run the turn motor to the specified position using the motor controller's onboard loop. The
+   * position is relative to the turn motor's encoder, not the absolute encoder.
+   */
+  public default void setTurnPosition(Rotation2d position) {}
+
   /** Enable or disable brake mode on the drive motor. */
   public default void setDriveBrakeMode(boolean enable) {}
 
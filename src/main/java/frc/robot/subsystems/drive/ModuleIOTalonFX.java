@@ -18,6 +18,9 @@ import com.ctre.phoenix6.StatusSignal;
 import com.ctre.phoenix6.configs.CANcoderConfiguration;
 import com.ctre.phoenix6.configs.MotorOutputConfigs;
 import com.ctre.phoenix6.configs.TalonFXConfiguration;
+import com.ctre.phoenix6.controls.ControlRequest;
+import com.ctre.phoenix6.controls.PositionVoltage;
+import com.ctre.phoenix6.controls.VelocityVoltage;
 import com.ctre.phoenix6.controls.VoltageOut;
 import com.ctre.phoenix6.hardware.CANcoder;
 import com.ctre.phoenix6.hardware.TalonFX;
@@ -26,6 +29,8 @@ import com.ctre.phoenix6.signals.NeutralModeValue;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.util.Units;
 import frc.robot.Constants;
+import frc.robot.util.StatusSignalRegistry;
+import java.util.Queue;
 
 /**
  * Module IO implementation for Talon FX drive motor controller, Talon FX turn motor controller, and
@@ -38,19 +43,27 @@ import frc.robot.Constants;
  * motion on the drive motor will propel the robot forward) and copy the reported values from the
  * absolute encoders using AdvantageScope. These values are logged under
  * "/Drive/ModuleX/TurnAbsolutePositionRad"
+ *
+ * <p>The gear ratios are applied on the Talons, so all signals are in wheel and module rotations.
+ * When onboard control is enabled the drive velocity and turn position loops run on the Talons at
+ * 1 kHz, using the module gains from Constants converted from radians to rotations.
  */
 public class ModuleIOTalonFX implements ModuleIO {
   private final TalonFX driveTalon;
   private final TalonFX turnTalon;
   private final CANcoder cancoder;
 
+  private final Queue<Double> timestampQueue;
+
   private final StatusSignal<Double> drivePosition;
+  private final Queue<Double> drivePositionQueue;
   private final StatusSignal<Double> driveVelocity;
   private final StatusSignal<Double> driveAppliedVolts;
   private final StatusSignal<Double> driveCurrent;
 
   private final StatusSignal<Double> turnAbsolutePosition;
   private final StatusSignal<Double> turnPosition;
+  private final Queue<Double> turnPositionQueue;
   private final StatusSignal<Double> turnVelocity;
   private final StatusSignal<Double> turnAppliedVolts;
   private final StatusSignal<Double> turnCurrent;
@@ -62,6 +75,20 @@ public class ModuleIOTalonFX implements ModuleIO {
   private final boolean isTurnMotorInverted = true;
   private final Rotation2d absoluteEncoderOffset;
 
+  // Control requests are reused, and a request is only sent when it would change the output
+  private final VoltageOut driveVoltageRequest =
+      new VoltageOut(0.0).withUpdateFreqHz(Constants.CAN.kControlUpdateFreqHz);
+  private final VelocityVoltage driveVelocityRequest =
+      new VelocityVoltage(0.0).withSlot(0).withUpdateFreqHz(Constants.CAN.kControlUpdateFreqHz);
+  private final VoltageOut turnVoltageRequest =
+      new VoltageOut(0.0).withUpdateFreqHz(Constants.CAN.kControlUpdateFreqHz);
+  private final PositionVoltage turnPositionRequest =
+      new PositionVoltage(0.0).withSlot(0).withUpdateFreqHz(Constants.CAN.kControlUpdateFreqHz);
+  private ControlRequest lastDriveRequest = null;
+  private double lastDriveOutput = Double.NaN;
+  private ControlRequest lastTurnRequest = null;
+  private double lastTurnOutput = Double.NaN;
+
   public ModuleIOTalonFX(int index) {
     switch (index) {
       case 0: // front left
@@ -97,6 +124,13 @@ public class ModuleIOTalonFX implements ModuleIO {
     driveConfig.CurrentLimits.StatorCurrentLimitEnable = true;
     driveConfig.CurrentLimits.SupplyCurrentLimit = 35.0;
     driveConfig.CurrentLimits.SupplyCurrentLimitEnable = true;
+    driveConfig.Feedback.SensorToMechanismRatio = DRIVE_GEAR_RATIO;
+    // Gains are per radian/sec of the wheel in Constants, the Talon uses rotations/sec
+    driveConfig.Slot0.kS = Constants.ModuleConstants.kDrivingStaticFF;
+    driveConfig.Slot0.kV = Constants.ModuleConstants.kDrivingVelocityFF * 2.0 * Math.PI;
+    driveConfig.Slot0.kP = Constants.ModuleConstants.kDrivingP * 2.0 * Math.PI;
+    driveConfig.Slot0.kI = Constants.ModuleConstants.kDrivingI * 2.0 * Math.PI;
+    driveConfig.Slot0.kD = Constants.ModuleConstants.kDrivingD * 2.0 * Math.PI;
     driveTalon.getConfigurator().apply(driveConfig);
     setDriveBrakeMode(true);
 
@@ -105,26 +139,39 @@ public class ModuleIOTalonFX implements ModuleIO {
     turnConfig.CurrentLimits.StatorCurrentLimitEnable = true;
     turnConfig.CurrentLimits.SupplyCurrentLimit = 35.0;
     turnConfig.CurrentLimits.SupplyCurrentLimitEnable = true;
+    turnConfig.Feedback.SensorToMechanismRatio = TURN_GEAR_RATIO;
+    turnConfig.ClosedLoopGeneral.ContinuousWrap = true;
+    turnConfig.Slot0.kP = Constants.ModuleConstants.kTurningP * 2.0 * Math.PI;
+    turnConfig.Slot0.kI = Constants.ModuleConstants.kTurningI * 2.0 * Math.PI;
+    turnConfig.Slot0.kD = Constants.ModuleConstants.kTurningD * 2.0 * Math.PI;
     turnTalon.getConfigurator().apply(turnConfig);
     setTurnBrakeMode(true);
 
     cancoder.getConfigurator().apply(new CANcoderConfiguration());
 
+    timestampQueue = PhoenixOdometryThread.getInstance().makeTimestampQueue();
+
     drivePosition = driveTalon.getPosition();
+    drivePositionQueue =
+        PhoenixOdometryThread.getInstance().registerSignal(driveTalon, driveTalon.getPosition());
     driveVelocity = driveTalon.getVelocity();
     driveAppliedVolts = driveTalon.getMotorVoltage();
     driveCurrent = driveTalon.getStatorCurrent();
 
     turnAbsolutePosition = cancoder.getAbsolutePosition();
     turnPosition = turnTalon.getPosition();
+    turnPositionQueue =
+        PhoenixOdometryThread.getInstance().registerSignal(turnTalon, turnTalon.getPosition());
     turnVelocity = turnTalon.getVelocity();
     turnAppliedVolts = turnTalon.getMotorVoltage();
     turnCurrent = turnTalon.getStatorCurrent();
 
     BaseStatusSignal.setUpdateFrequencyForAll(
-        100.0, drivePosition, turnPosition); // Required for odometry, use faster rate
+        Constants.DriveConstants.kODOMETRY_FREQUENCY,
+        drivePosition,
+        turnPosition); // Required for odometry, use faster rate
     BaseStatusSignal.setUpdateFrequencyForAll(
-        50.0,
+        Constants.CAN.kStatusUpdateFreqHz,
         driveVelocity,
         driveAppliedVolts,
         driveCurrent,
@@ -134,47 +181,80 @@ public class ModuleIOTalonFX implements ModuleIO {
         turnCurrent);
     driveTalon.optimizeBusUtilization();
     turnTalon.optimizeBusUtilization();
+    StatusSignalRegistry.register(
+        driveTalon, drivePosition, driveVelocity, driveAppliedVolts, driveCurrent);
+    StatusSignalRegistry.register(
+        turnTalon, turnPosition, turnVelocity, turnAppliedVolts, turnCurrent);
+    StatusSignalRegistry.register(cancoder, turnAbsolutePosition);
   }
 
   @Override
   public void updateInputs(ModuleIOInputs inputs) {
-    BaseStatusSignal.refreshAll(
-        drivePosition,
-        driveVelocity,
-        driveAppliedVolts,
-        driveCurrent,
-        turnAbsolutePosition,
-        turnPosition,
-        turnVelocity,
-        turnAppliedVolts,
-        turnCurrent);
-
-    inputs.drivePositionRad =
-        Units.rotationsToRadians(drivePosition.getValueAsDouble()) / DRIVE_GEAR_RATIO;
-    inputs.driveVelocityRadPerSec =
-        Units.rotationsToRadians(driveVelocity.getValueAsDouble()) / DRIVE_GEAR_RATIO;
+    // Signals are refreshed by the StatusSignalRegistry at the start of the loop
+    inputs.drivePositionRad = Units.rotationsToRadians(drivePosition.getValueAsDouble());
+    inputs.driveVelocityRadPerSec = Units.rotationsToRadians(driveVelocity.getValueAsDouble());
     inputs.driveAppliedVolts = driveAppliedVolts.getValueAsDouble();
     inputs.driveCurrentAmps = new double[] {driveCurrent.getValueAsDouble()};
 
     inputs.turnAbsolutePosition =
         Rotation2d.fromRotations(turnAbsolutePosition.getValueAsDouble())
             .minus(absoluteEncoderOffset);
-    inputs.turnPosition =
-        Rotation2d.fromRotations(turnPosition.getValueAsDouble() / TURN_GEAR_RATIO);
-    inputs.turnVelocityRadPerSec =
-        Units.rotationsToRadians(turnVelocity.getValueAsDouble()) / TURN_GEAR_RATIO;
+    inputs.turnPosition = Rotation2d.fromRotations(turnPosition.getValueAsDouble());
+    inputs.turnVelocityRadPerSec = Units.rotationsToRadians(turnVelocity.getValueAsDouble());
     inputs.turnAppliedVolts = turnAppliedVolts.getValueAsDouble();
     inputs.turnCurrentAmps = new double[] {turnCurrent.getValueAsDouble()};
+
+    inputs.odometryTimestamps =
+        timestampQueue.stream().mapToDouble((Double value) -> value).toArray();
+    inputs.odometryDrivePositionsRad =
+        drivePositionQueue.stream()
+            .mapToDouble((Double value) -> Units.rotationsToRadians(value))
+            .toArray();
+    inputs.odometryTurnPositions =
+        turnPositionQueue.stream()
+            .map((Double value) -> Rotation2d.fromRotations(value))
+            .toArray(Rotation2d[]::new);
+    timestampQueue.clear();
+    drivePositionQueue.clear();
+    turnPositionQueue.clear();
   }
 
   @Override
   public void setDriveVoltage(double volts) {
-    driveTalon.setControl(new VoltageOut(volts));
+    if (lastDriveRequest != driveVoltageRequest || volts != lastDriveOutput) {
+      driveTalon.setControl(driveVoltageRequest.withOutput(volts));
+      lastDriveRequest = driveVoltageRequest;
+      lastDriveOutput = volts;
+    }
   }
 
   @Override
   public void setTurnVoltage(double volts) {
-    turnTalon.setControl(new VoltageOut(volts));
+    if (lastTurnRequest != turnVoltageRequest || volts != lastTurnOutput) {
+      turnTalon.setControl(turnVoltageRequest.withOutput(volts));
+      lastTurnRequest = turnVoltageRequest;
+      lastTurnOutput = volts;
+    }
+  }
+
+  @Override
+  public void setDriveVelocity(double velocityRadPerSec) {
+    double velocityRotPerSec = Units.radiansToRotations(velocityRadPerSec);
+    if (lastDriveRequest != driveVelocityRequest || velocityRotPerSec != lastDriveOutput) {
+      driveTalon.setControl(driveVelocityRequest.withVelocity(velocityRotPerSec));
+      lastDriveRequest = driveVelocityRequest;
+      lastDriveOutput = velocityRotPerSec;
+    }
+  }
+
+  @Override
+  public void setTurnPosition(Rotation2d position) {
+    double positionRot = position.getRotations();
+    if (lastTurnRequest != turnPositionRequest || positionRot != lastTurnOutput) {
+      turnTalon.setControl(turnPositionRequest.withPosition(positionRot));
+      lastTurnRequest = turnPositionRequest;
+      lastTurnOutput = positionRot;
+    }
   }
 
   @Override
@@ -0,0 +1,194 @@
+package frc.robot.subsystems.drive;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+/**
+ * Limits chassis speed setpoints to what the modules can physically follow in one loop.
+ *
+ * <p>Each call moves the previous setpoint toward the requested one along a straight line in
+ * chassis speed space. Module velocities are linear in the chassis speeds, so every module also
+ * moves along a straight line, and the generator picks the largest step along that line for which
+ * no module accelerates faster than the max module acceleration and no module heading turns
+ * faster than the max azimuth velocity. A module that is (nearly) stopped is steered toward its
+ * target heading first, holding the whole robot still until it can drive without scrubbing.
+ *
+ * <p>All state is kept in primitive arrays, and a module state's Rotation2d is only replaced when
+ * that module's heading changes, so a steady setpoint does not allocate.
+ */
+public class SwerveSetpointGenerator {
+  private static final double EPSILON = 1E-6; // Module speeds below this are treated as stopped
+  private static final int MAX_ITERATIONS = 10; // Bisection steps, resolves to ~0.1% of the step
+  private static final int MAX_PASSES = 4; // Azimuth limit passes before holding still instead
+
+  private final double[] moduleX;
+  private final double[] moduleY;
+  private double maxModuleAcceleration;
+  private final double maxAzimuthVelocity;
+
+  // Previous setpoint, in robot relative chassis speeds and module headings
+  private double prevVx = 0.0;
+  private double prevVy = 0.0;
+  private double prevOmega = 0.0;
+  private final double[] prevHeadingsRad;
+
+  // Heading each module turns to while stopped, the last requested heading unless overridden
+  private final double[] holdHeadingsRad;
+
+  /**
+   * Create a new SwerveSetpointGenerator
+   *
+   * @param moduleX X position of each module from the robot center in meters
+   * @param moduleY Y position of each module from the robot center in meters
+   * @param maxModuleAcceleration Max acceleration of any module in meters/sec^2
+   * @param maxAzimuthVelocity Max turning velocity of any module in radians/sec
+   */
+  public SwerveSetpointGenerator(
+      double[] moduleX, double[] moduleY, double maxModuleAcceleration, double maxAzimuthVelocity) {
+    this.moduleX = moduleX;
+    this.moduleY = moduleY;
+    this.maxModuleAcceleration = maxModuleAcceleration;
+    this.maxAzimuthVelocity = maxAzimuthVelocity;
+    prevHeadingsRad = new double[moduleX.length];
+    holdHeadingsRad = new double[moduleX.length];
+  }
+
+  /**
+   * Moves the previous setpoint toward the requested chassis speeds and writes the resulting module
+   * states. The requested speeds should already be discretized and desaturated.
+   *
+   * @param vx Requested robot relative x velocity in meters/sec
+   * @param vy Requested robot relative y velocity in meters/sec
+   * @param omega Requested angular velocity in radians/sec
+   * @param dt Loop period in seconds
+   * @param states Module states to write, one per module
+   */
+  public void generate(double vx, double vy, double omega, double dt, SwerveModuleState[] states) {
+    double maxVelocityStep = maxModuleAcceleration * dt;
+    double maxHeadingStep = maxAzimuthVelocity * dt;
+
+    // Find the largest fraction of the step every module can follow, first by acceleration
+    double step = 1.0;
+    for (int i = 0; i < moduleX.length; i++) {
+      double targetModuleVx = vx - omega * moduleY[i];
+      double targetModuleVy = vy + omega * moduleX[i];
+      if (Math.hypot(targetModuleVx, targetModuleVy) > EPSILON) {
+        // Remember the requested heading, it is held once the robot stops
+        holdHeadingsRad[i] = Math.atan2(targetModuleVy, targetModuleVx);
+      }
+
+      // The change in module velocity is linear in the step
+      double deltaNorm =
+          Math.hypot(
+              targetModuleVx - (prevVx - prevOmega * moduleY[i]),
+              targetModuleVy - (prevVy + prevOmega * moduleX[i]));
+      if (deltaNorm * step > maxVelocityStep) {
+        step = maxVelocityStep / deltaNorm;
+      }
+    }
+
+    // Then by azimuth velocity. A module may also reverse instead of turning, so a module that was
+    // feasible by reversing can stop being feasible when another module shortens the step. Repeat
+    // until every module is feasible, falling back to not moving at all.
+    boolean limited = true;
+    for (int pass = 0; limited; pass++) {
+      limited = false;
+      for (int i = 0; i < moduleX.length; i++) {
+        if (!isHeadingFeasible(i, vx, vy, omega, step, maxHeadingStep)) {
+          step = pass < MAX_PASSES ? maxFeasibleStep(i, vx, vy, omega, step, maxHeadingStep) : 0.0;
+          limited = true;
+        }
+      }
+    }
+
+    // Apply the step and compute the module states
+    prevVx += (vx - prevVx) * step;
+    prevVy += (vy - prevVy) * step;
+    prevOmega += (omega - prevOmega) * step;
+    for (int i = 0; i < moduleX.length; i++) {
+      double moduleVx = prevVx - prevOmega * moduleY[i];
+      double moduleVy = prevVy + prevOmega * moduleX[i];
+      double speed = Math.hypot(moduleVx, moduleVy);
+      if (speed < EPSILON) {
+        // Stopped, turn toward the hold heading allowing the module to flip direction
+        double deltaRad = MathUtil.angleModulus(holdHeadingsRad[i] - prevHeadingsRad[i]);
+        if (deltaRad > Math.PI / 2.0) {
+          deltaRad -= Math.PI;
+        } else if (deltaRad < -Math.PI / 2.0) {
+          deltaRad += Math.PI;
+        }
+        prevHeadingsRad[i] =
+            MathUtil.angleModulus(
+                prevHeadingsRad[i] + MathUtil.clamp(deltaRad, -maxHeadingStep, maxHeadingStep));
+        speed = 0.0;
+      } else {
+        prevHeadingsRad[i] = Math.atan2(moduleVy, moduleVx);
+      }
+      states[i].speedMetersPerSecond = speed;
+      if (states[i].angle == null || states[i].angle.getRadians() != prevHeadingsRad[i]) {
+        states[i].angle = new Rotation2d(prevHeadingsRad[i]);
+      }
+    }
+  }
+
+  /** Changes the max acceleration of any module, in meters/sec^2. */
+  public void setMaxModuleAcceleration(double maxModuleAcceleration) {
+    this.maxModuleAcceleration = maxModuleAcceleration;
+  }
+
+  /**
+   * Sets the heading each module turns to while the robot is stopped. The headings are replaced
+   * the next time a nonzero velocity is requested.
+   */
+  public void setHoldHeadings(Rotation2d[] headings) {
+    for (int i = 0; i < moduleX.length; i++) {
+      holdHeadingsRad[i] = headings[i].getRadians();
+    }
+  }
+
+  /** Resets the previous setpoint to stopped, keeping the module headings. */
+  public void reset() {
+    prevVx = 0.0;
+    prevVy = 0.0;
+    prevOmega = 0.0;
+  }
+
+  /**
+   * Bisects for a step at which a module's heading is feasible. The lower bound is always feasible
+   * since the module starts on its heading, the upper bound is known to be infeasible.
+   */
+  private double maxFeasibleStep(
+      int module, double vx, double vy, double omega, double high, double maxHeadingStep) {
+    double low = 0.0;
+    for (int j = 0; j < MAX_ITERATIONS; j++) {
+      double mid = 0.5 * (low + high);
+      if (isHeadingFeasible(module, vx, vy, omega, mid, maxHeadingStep)) {
+        low = mid;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Returns whether a module's velocity after moving the given fraction of the way to the
+   * requested chassis speeds is within the max heading step of its previous heading. A module may
+   * reverse its drive direction instead of turning all the way around.
+   */
+  private boolean isHeadingFeasible(
+      int module, double vx, double vy, double omega, double step, double maxHeadingStep) {
+    double stepVx = prevVx + (vx - prevVx) * step;
+    double stepVy = prevVy + (vy - prevVy) * step;
+    double stepOmega = prevOmega + (omega - prevOmega) * step;
+    double moduleVx = stepVx - stepOmega * moduleY[module];
+    double moduleVy = stepVy + stepOmega * moduleX[module];
+    if (moduleVx * moduleVx + moduleVy * moduleVy < EPSILON * EPSILON) {
+      return true;
+    }
+    double deltaRad =
+        Math.abs(MathUtil.angleModulus(Math.atan2(moduleVy, moduleVx) - prevHeadingsRad[module]));
+    return Math.min(deltaRad, Math.PI - deltaRad) <= maxHeadingStep;
+  }
+}
@@ -8,11 +8,15 @@ import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants;
 import frc.robot.Constants.IndexerConstants;
 import frc.robot.util.LoggedTunableNumber;
+import frc.robot.util.LoopTiming;
+import frc.robot.util.ParallelIOUpdater;
 import org.littletonrobotics.junction.AutoLogOutput;
+import org.littletonrobotics.junction.Logger;
 
 public class Indexer extends SubsystemBase {
   private IndexerIO io;
   private final IndexerIOInputsAutoLogged inputs = new IndexerIOInputsAutoLogged();
+  private final LoopTiming.Probe periodicTiming = LoopTiming.probe("Indexer");
 
   private static final LoggedTunableNumber kP = new LoggedTunableNumber("kP", 0.1);
   private static final LoggedTunableNumber kI = new LoggedTunableNumber("kI", 0.01);
@@ -35,9 +39,13 @@ public class Indexer extends SubsystemBase {
   };
 
   private IndexMode indexMode = IndexMode.kStopped;
+  private double outputScale = 1.0;
+  private long tunablesVersion = -1;
+  private final int tunableSubscriber = LoggedTunableNumber.registerSubscriber();
 
   public Indexer(IndexerIO io) {
     this.io = io;
+    ParallelIOUpdater.register(this::updateInputs);
 
     controller.setPID(kP.get(), kI.get(), 0.0);
 
@@ -55,13 +63,22 @@ public class Indexer extends SubsystemBase {
     }
   }
 
-  @Override
-  public void periodic() {
+  /** Updates the inputs. Called from the parallel IO stage before periodic. */
+  public void updateInputs() {
     io.updateInputs(inputs);
+  }
 
-    if (kP.hasChanged(hashCode()) || kI.hasChanged(hashCode())) {
-      controller.setPID(kP.get(), kI.get(), 0.0);
-      controller.reset();
+  @Override
+  public void periodic() {
+    periodicTiming.start();
+    Logger.processInputs("Indexer", inputs);
+
+    if (tunablesVersion != LoggedTunableNumber.getVersion()) {
+      tunablesVersion = LoggedTunableNumber.getVersion();
+      if (kP.hasChanged(tunableSubscriber) || kI.hasChanged(tunableSubscriber)) {
+        controller.setPID(kP.get(), kI.get(), 0.0);
+        controller.reset();
+      }
     }
 
     if (DriverStation.isDisabled()) {
@@ -84,8 +101,9 @@ public class Indexer extends SubsystemBase {
 
     setpointRadPerSec = Units.rotationsPerMinuteToRadiansPerSecond(setpointRPMs);
     controller.setSetpoint(setpointRadPerSec);
-    double voltage = ffModel.calculate(setpointRadPerSec);
+    double voltage = ffModel.calculate(setpointRadPerSec) * outputScale;
     io.setVoltage(voltage);
+    periodicTiming.stop();
   }
 
   public void index() {
@@ -100,6 +118,11 @@ public class Indexer extends SubsystemBase {
     this.indexMode = IndexMode.kStopped;
   }
 
+  /** Scales the indexer voltage when the power governor limits the robot's current draw. */
+  public void setOutputScale(double scale) {
+    outputScale = scale;
+  }
+
   @AutoLogOutput
   public double getSetpointRadians() {
     return setpointRadPerSec;
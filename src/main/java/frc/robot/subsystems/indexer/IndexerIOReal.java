@@ -1,15 +1,27 @@
 package frc.robot.subsystems.indexer;
 
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
 import com.ctre.phoenix6.configs.TalonFXConfiguration;
+import com.ctre.phoenix6.controls.VoltageOut;
 import com.ctre.phoenix6.hardware.TalonFX;
 import com.ctre.phoenix6.signals.InvertedValue;
 import com.ctre.phoenix6.signals.NeutralModeValue;
 import frc.robot.Constants;
 import frc.robot.Constants.CAN;
+import frc.robot.util.StatusSignalRegistry;
 
 public class IndexerIOReal implements IndexerIO {
   public TalonFX indexerMotor;
 
+  private final StatusSignal<Double> velocity;
+  private final StatusSignal<Double> current;
+  private final StatusSignal<Double> supplyVoltage;
+
+  private final VoltageOut voltageRequest =
+      new VoltageOut(0.0).withUpdateFreqHz(CAN.kControlUpdateFreqHz);
+  private double lastVoltage = Double.NaN; // Unchanged requests are not resent
+
   public IndexerIOReal() {
     indexerMotor = new TalonFX(CAN.kIndexer);
     var config = new TalonFXConfiguration();
@@ -18,16 +30,28 @@ public class IndexerIOReal implements IndexerIO {
     config.MotorOutput.Inverted = InvertedValue.CounterClockwise_Positive; // TODO: check
     config.MotorOutput.NeutralMode = NeutralModeValue.Coast;
     indexerMotor.getConfigurator().apply(config);
+
+    velocity = indexerMotor.getVelocity();
+    current = indexerMotor.getStatorCurrent();
+    supplyVoltage = indexerMotor.getSupplyVoltage();
+    BaseStatusSignal.setUpdateFrequencyForAll(
+        CAN.kStatusUpdateFreqHz, velocity, current, supplyVoltage);
+    indexerMotor.optimizeBusUtilization();
+    StatusSignalRegistry.register(indexerMotor, velocity, current, supplyVoltage);
   }
 
   @Override
   public void updateInputs(IndexerIOInputs inputs) {
-    inputs.velocityRadPerSec = indexerMotor.getVelocity().getValueAsDouble();
-    inputs.currentAmps = indexerMotor.getStatorCurrent().getValueAsDouble();
-    inputs.appliedVolts = indexerMotor.getSupplyVoltage().getValueAsDouble();
+    // Signals are refreshed by the StatusSignalRegistry at the start of the loop
+    inputs.velocityRadPerSec = velocity.getValueAsDouble();
+    inputs.currentAmps = current.getValueAsDouble();
+    inputs.appliedVolts = supplyVoltage.getValueAsDouble();
   }
 
   public void setVoltage(double voltage) {
-    indexerMotor.setVoltage(voltage);
+    if (voltage != lastVoltage) {
+      indexerMotor.setControl(voltageRequest.withOutput(voltage));
+      lastVoltage = voltage;
+    }
   }
 }
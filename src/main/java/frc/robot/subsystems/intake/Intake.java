@@ -3,18 +3,23 @@ package frc.robot.subsystems.intake;
 import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.controller.PIDController;
 import edu.wpi.first.math.controller.SimpleMotorFeedforward;
+import edu.wpi.first.math.filter.Debouncer;
+import edu.wpi.first.math.filter.Debouncer.DebounceType;
 import edu.wpi.first.math.util.Units;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj2.command.*;
 import frc.robot.Constants;
 import frc.robot.Constants.IntakeConstants;
 import frc.robot.util.LoggedTunableNumber;
+import frc.robot.util.LoopTiming;
+import frc.robot.util.ParallelIOUpdater;
 import org.littletonrobotics.junction.AutoLogOutput;
 import org.littletonrobotics.junction.Logger;
 
 public class Intake extends SubsystemBase {
   private IntakeIO io;
   private final IntakeIOInputsAutoLogged inputs = new IntakeIOInputsAutoLogged();
+  private final LoopTiming.Probe periodicTiming = LoopTiming.probe("Intake");
 
   private static final LoggedTunableNumber kP = new LoggedTunableNumber("Intake/kP", 0.1);
   private static final LoggedTunableNumber kI = new LoggedTunableNumber("Intake/kI", 0.5);
@@ -43,10 +48,18 @@ public class Intake extends SubsystemBase {
   };
 
   private IntakeMode mode = IntakeMode.kStopped;
+  // Debounced here rather than in the IO so replay recomputes it from the logged raw reading
+  private final Debouncer noteDebouncer =
+      new Debouncer(IntakeConstants.kNoteDebounceSecs, DebounceType.kBoth);
+  private boolean hasNote = false;
+  private double outputScale = 1.0;
+  private long tunablesVersion = -1;
+  private final int tunableSubscriber = LoggedTunableNumber.registerSubscriber();
 
   public Intake(IntakeIO io) {
     System.out.println("[Init] Creating Intake");
     this.io = io;
+    ParallelIOUpdater.register(this::updateInputs);
     io.setBrakeMode(false);
 
     controller.setPID(kP.get(), kI.get(), 0.0);
@@ -69,15 +82,24 @@ public class Intake extends SubsystemBase {
     }
   }
 
+  /** Updates the inputs from the intake hardware. Runs on the ParallelIOUpdater pool. */
+  public void updateInputs() {
+    io.updateInputs(inputs);
+  }
+
   @Override
   public void periodic() {
-    io.updateInputs(inputs);
+    periodicTiming.start();
     Logger.processInputs("Intake", inputs);
+    hasNote = noteDebouncer.calculate(inputs.hasNote);
 
     // Update tunable numbers
-    if (kP.hasChanged(hashCode()) || kI.hasChanged(hashCode())) {
-      controller.setPID(kP.get(), kI.get(), 0.0);
-      controller.reset();
+    if (tunablesVersion != LoggedTunableNumber.getVersion()) {
+      tunablesVersion = LoggedTunableNumber.getVersion();
+      if (kP.hasChanged(tunableSubscriber) || kI.hasChanged(tunableSubscriber)) {
+        controller.setPID(kP.get(), kI.get(), 0.0);
+        controller.reset();
+      }
     }
 
     // Reset when disabled
@@ -107,16 +129,18 @@ public class Intake extends SubsystemBase {
       controller.setSetpoint(setpointRadPerSec);
       double voltage = ffModel.calculate(setpointRadPerSec);
       // + controller.calculate(inputs.velocityRadPerSec);
-      io.setVoltage(MathUtil.clamp(voltage, -12.0, 12.0));
+      io.setVoltage(MathUtil.clamp(voltage * outputScale, -12.0, 12.0));
     }
+    periodicTiming.stop();
   }
 
+  @AutoLogOutput
   public boolean hasNote() {
-    return inputs.hasNote;
+    return hasNote;
   }
 
   public boolean hasNoNote() {
-    return !inputs.hasNote;
+    return !hasNote;
   }
 
   public void eat() {
@@ -139,6 +163,11 @@ public class Intake extends SubsystemBase {
     mode = IntakeMode.kStopped;
   }
 
+  /** Scales the rollers' voltage, set by the power governor when the battery sags. */
+  public void setOutputScale(double scale) {
+    outputScale = scale;
+  }
+
   @AutoLogOutput
   public double getSetpointRadians() {
     return setpointRadPerSec;
@@ -6,9 +6,12 @@ public interface IntakeIO {
   @AutoLog
   public static class IntakeIOInputs {
     public double velocityRadPerSec = 0.0;
-    public boolean hasNote = false;
+    public boolean hasNote = false; // Raw reading, debounced by the Intake
     public double appliedVolts = 0.0;
     public double currentAmps = 0.0;
+    public double noteSensorRangeInches = 0.0;
+    public double noteSensorTimestampSecs = 0.0; // FPGA time the range was read
+    public boolean noteSensorValid = false; // Sensor reported a valid range that is not stale
   }
   /** Updates the set of loggable inputs. */
   public default void updateInputs(IntakeIOInputs inputs) {}
@@ -1,17 +1,43 @@
 package frc.robot.subsystems.intake;
 
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.controls.VoltageOut;
 import com.ctre.phoenix6.hardware.TalonFX;
 import com.ctre.phoenix6.signals.NeutralModeValue;
 import com.revrobotics.Rev2mDistanceSensor;
 import com.revrobotics.Rev2mDistanceSensor.Port;
 import com.revrobotics.Rev2mDistanceSensor.Unit;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Timer;
 import frc.robot.Constants.CAN;
-import org.littletonrobotics.junction.AutoLogOutput;
+import frc.robot.Constants.IntakeConstants;
+import frc.robot.util.StatusSignalRegistry;
 
+/**
+ * Intake hardware: a TalonFX roller and a Rev 2m distance sensor that detects the note.
+ *
+ * <p>The distance sensor is on I2C, which can block for a long time, so it is only read from a
+ * background Notifier at its measurement rate. Each read is published as one immutable sample
+ * through a volatile field, and {@link #updateInputs} just takes the latest one without locking.
+ */
 public class IntakeIOReal implements IntakeIO {
   // private DigitalInput breamBreak;
   private TalonFX motor;
   private Rev2mDistanceSensor distSensor;
+  private final Notifier distSensorNotifier;
+  private volatile RangeSample latestRange = null; // Written by the notifier
+
+  private static record RangeSample(double rangeInches, double timestampSecs, boolean valid) {}
+
+  private final StatusSignal<Double> velocity;
+  private final StatusSignal<Double> motorVoltage;
+  private final StatusSignal<Double> supplyVoltage;
+  private final StatusSignal<Double> current;
+
+  private final VoltageOut voltageRequest =
+      new VoltageOut(0.0).withUpdateFreqHz(CAN.kControlUpdateFreqHz);
+  private double lastVoltage = Double.NaN; // Unchanged requests are not resent
 
   public IntakeIOReal() {
     System.out.println("[Init] Creating IntakeIOReal");
@@ -22,36 +48,62 @@ public class IntakeIOReal implements IntakeIO {
     motor.setInverted(true);
     motor.setNeutralMode(NeutralModeValue.Coast);
 
+    velocity = motor.getVelocity();
+    motorVoltage = motor.getMotorVoltage();
+    supplyVoltage = motor.getSupplyVoltage();
+    current = motor.getStatorCurrent();
+    BaseStatusSignal.setUpdateFrequencyForAll(
+        CAN.kStatusUpdateFreqHz, velocity, motorVoltage, supplyVoltage, current);
+    motor.optimizeBusUtilization();
+    StatusSignalRegistry.register(motor, velocity, motorVoltage, supplyVoltage, current);
+
     distSensor = new Rev2mDistanceSensor(Port.kOnboard); // i2c port
     distSensor.setDistanceUnits(Unit.kInches);
     distSensor.setAutomaticMode(true);
+    distSensorNotifier = new Notifier(this::sampleDistSensor);
+    distSensorNotifier.setName("IntakeDistSensor");
+    distSensorNotifier.startPeriodic(IntakeConstants.kNoteSensorPeriodSecs);
+  }
+
+  /** Reads the distance sensor. Runs on the notifier thread. */
+  private void sampleDistSensor() {
+    boolean valid = distSensor.isEnabled() && distSensor.isRangeValid();
+    latestRange = new RangeSample(distSensor.getRange(), Timer.getFPGATimestamp(), valid);
   }
 
   @Override
   public void updateInputs(IntakeIOInputs inputs) {
-    inputs.velocityRadPerSec = motor.getVelocity().getValueAsDouble() * 2.0 * Math.PI / 60.0 / 5.0;
-    inputs.appliedVolts =
-        motor.getMotorVoltage().getValueAsDouble() * motor.getSupplyVoltage().getValueAsDouble();
-    inputs.currentAmps = motor.getStatorCurrent().getValueAsDouble();
-    inputs.hasNote = false;
+    // Signals are refreshed by the StatusSignalRegistry at the start of the loop
+    inputs.velocityRadPerSec = velocity.getValueAsDouble() * 2.0 * Math.PI / 60.0 / 5.0;
+    inputs.appliedVolts = motorVoltage.getValueAsDouble() * supplyVoltage.getValueAsDouble();
+    inputs.currentAmps = current.getValueAsDouble();
+
+    // Take the latest distance sample, a sample the notifier has not refreshed lately is invalid
+    RangeSample range = latestRange;
+    if (range == null) {
+      inputs.noteSensorValid = false;
+    } else {
+      inputs.noteSensorRangeInches = range.rangeInches();
+      inputs.noteSensorTimestampSecs = range.timestampSecs();
+      inputs.noteSensorValid =
+          range.valid()
+              && Timer.getFPGATimestamp() - range.timestampSecs()
+                  < IntakeConstants.kNoteSensorStaleSecs;
+    }
+    inputs.hasNote =
+        inputs.noteSensorValid && inputs.noteSensorRangeInches < IntakeConstants.kNoteRangeInches;
   }
 
   @Override
   public void setVoltage(double voltage) {
-    motor.setVoltage(voltage);
+    if (voltage != lastVoltage) {
+      motor.setControl(voltageRequest.withOutput(voltage));
+      lastVoltage = voltage;
+    }
   }
 
   @Override
   public void setBrakeMode(boolean brake) {
     motor.setNeutralMode(brake ? NeutralModeValue.Brake : NeutralModeValue.Coast);
   }
-
-  @AutoLogOutput
-  public double getDistSensorRangeInches() {
-    return distSensor.getRange();
-  }
-
-  private boolean hasNoteFromDist() {
-    return distSensor.isEnabled() && distSensor.getRange() < 10.0;
-  }
 }
@@ -37,6 +37,9 @@ public class IntakeIOSim implements IntakeIO {
     inputs.appliedVolts = appliedVolts;
     inputs.currentAmps = sim.getCurrentDrawAmps();
     inputs.hasNote = hasNote;
+    inputs.noteSensorRangeInches = hasNote ? 2.0 : 20.0;
+    inputs.noteSensorTimestampSecs = Timer.getFPGATimestamp();
+    inputs.noteSensorValid = true;
 
     simulateNote();
   }
@@ -0,0 +1,113 @@
+package frc.robot.subsystems.power;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.Constants;
+import frc.robot.Constants.PowerConstants;
+import frc.robot.util.LoopTiming;
+import frc.robot.util.ParallelIOUpdater;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.DoubleConsumer;
+import org.littletonrobotics.junction.AutoLogOutput;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Battery and power distribution telemetry.
+ *
+ * <p>Also governs the robot's current draw. When the battery sags or the total current exceeds the
+ * budget, every registered output is told to scale its output down, and the scale recovers slowly
+ * once the battery does. This subsystem should be created before the subsystems it governs, so
+ * they receive this loop's scale before their own periodic runs.
+ */
+public class Power extends SubsystemBase {
+  private final PowerDistributionIO io;
+  private final PowerDistributionIOInputsAutoLogged inputs =
+      new PowerDistributionIOInputsAutoLogged();
+  private final LoopTiming.Probe periodicTiming = LoopTiming.probe("Power");
+
+  private final List<DoubleConsumer> governedOutputs = new ArrayList<>();
+  private double outputScale = 1.0;
+
+  public Power(PowerDistributionIO io) {
+    this.io = io;
+    ParallelIOUpdater.register(this::updateInputs);
+  }
+
+  /** Copies the latest hub sample into the inputs. Called from the parallel IO stage. */
+  public void updateInputs() {
+    io.updateInputs(inputs);
+  }
+
+  @Override
+  public void periodic() {
+    periodicTiming.start();
+    Logger.processInputs("PowerDistribution", inputs);
+
+    updateOutputScale();
+    for (int i = 0; i < governedOutputs.size(); i++) {
+      governedOutputs.get(i).accept(outputScale);
+    }
+    periodicTiming.stop();
+  }
+
+  private void updateOutputScale() {
+    double targetScale = 1.0;
+    if (inputs.connected) {
+      targetScale =
+          MathUtil.clamp(
+              (inputs.voltage - PowerConstants.kGovernorMinVolts)
+                  / (PowerConstants.kGovernorStartVolts - PowerConstants.kGovernorMinVolts),
+              PowerConstants.kMinOutputScale,
+              1.0);
+      if (inputs.totalCurrentAmps > PowerConstants.kMaxTotalCurrentAmps) {
+        targetScale =
+            Math.min(
+                targetScale,
+                Math.max(
+                    PowerConstants.kMinOutputScale,
+                    PowerConstants.kMaxTotalCurrentAmps / inputs.totalCurrentAmps));
+      }
+    }
+
+    // Cut immediately, but recover gradually so the outputs do not oscillate around the sag
+    if (targetScale < outputScale) {
+      outputScale = targetScale;
+    } else {
+      outputScale =
+          Math.min(
+              targetScale,
+              outputScale
+                  + PowerConstants.kOutputScaleRecoveryPerSec * Constants.loopPeriodSecs);
+    }
+  }
+
+  /**
+   * Registers an output to be scaled by the governor. The consumer is called every loop with a
+   * scale between {@link PowerConstants#kMinOutputScale} and 1.
+   */
+  public void addGovernedOutput(DoubleConsumer setOutputScale) {
+    governedOutputs.add(setOutputScale);
+  }
+
+  /** Returns the scale currently applied to the governed outputs. */
+  @AutoLogOutput(key = "PowerDistribution/OutputScale")
+  public double getOutputScale() {
+    return outputScale;
+  }
+
+  /** Returns the battery voltage measured by the hub, in volts. */
+  public double getVoltage() {
+    return inputs.voltage;
+  }
+
+  /** Returns the total current drawn through the hub, in amps. */
+  public double getTotalCurrentAmps() {
+    return inputs.totalCurrentAmps;
+  }
+
+  /** Returns whether the hub has been read at least once. */
+  public boolean isConnected() {
+    return inputs.connected;
+  }
+}
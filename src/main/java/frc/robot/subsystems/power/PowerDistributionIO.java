@@ -0,0 +1,18 @@
+package frc.robot.subsystems.power;
+
+import org.littletonrobotics.junction.AutoLog;
+
+public interface PowerDistributionIO {
+
+  @AutoLog
+  public static class PowerDistributionIOInputs {
+    public boolean connected = false;
+    public double voltage = 0.0;
+    public double totalCurrentAmps = 0.0;
+    public double totalPowerWatts = 0.0;
+    public double totalEnergyJoules = 0.0;
+    public double[] channelCurrentsAmps = new double[] {};
+  }
+
+  public default void updateInputs(PowerDistributionIOInputs inputs) {}
+}
@@ -0,0 +1,64 @@
+package frc.robot.subsystems.power;
+
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.PowerDistribution;
+import edu.wpi.first.wpilibj.PowerDistribution.ModuleType;
+
+/**
+ * Reads the power distribution hub from a background Notifier at a fixed rate. Every read blocks on
+ * CAN, so the main loop only copies the latest sample instead of reading the hub itself.
+ */
+public class PowerDistributionIOReal implements PowerDistributionIO {
+  private final PowerDistribution pdh;
+  private final Notifier notifier;
+
+  // Written by the notifier, copied into the inputs by updateInputs
+  private final Object sampleLock = new Object();
+  private boolean sampled = false;
+  private double voltage = 0.0;
+  private double totalCurrentAmps = 0.0;
+  private double totalPowerWatts = 0.0;
+  private double totalEnergyJoules = 0.0;
+  private double[] channelCurrentsAmps = new double[] {};
+
+  /**
+   * @param canId CAN ID of the hub
+   * @param moduleType Type of the hub
+   * @param pollRateHz How often to read the hub
+   */
+  public PowerDistributionIOReal(int canId, ModuleType moduleType, double pollRateHz) {
+    pdh = new PowerDistribution(canId, moduleType);
+    notifier = new Notifier(this::poll);
+    notifier.setName("PowerDistributionIO");
+    notifier.startPeriodic(1.0 / pollRateHz);
+  }
+
+  private void poll() {
+    double newVoltage = pdh.getVoltage();
+    double newTotalCurrent = pdh.getTotalCurrent();
+    double newTotalPower = pdh.getTotalPower();
+    double newTotalEnergy = pdh.getTotalEnergy();
+    double[] newChannelCurrents = pdh.getAllCurrents(); // One read for every channel
+
+    synchronized (sampleLock) {
+      sampled = true;
+      voltage = newVoltage;
+      totalCurrentAmps = newTotalCurrent;
+      totalPowerWatts = newTotalPower;
+      totalEnergyJoules = newTotalEnergy;
+      channelCurrentsAmps = newChannelCurrents;
+    }
+  }
+
+  @Override
+  public void updateInputs(PowerDistributionIOInputs inputs) {
+    synchronized (sampleLock) {
+      inputs.connected = sampled;
+      inputs.voltage = voltage;
+      inputs.totalCurrentAmps = totalCurrentAmps;
+      inputs.totalPowerWatts = totalPowerWatts;
+      inputs.totalEnergyJoules = totalEnergyJoules;
+      inputs.channelCurrentsAmps = channelCurrentsAmps;
+    }
+  }
+}
@@ -3,10 +3,13 @@ package frc.robot.subsystems.shooter;
 import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.controller.PIDController;
 import edu.wpi.first.math.controller.SimpleMotorFeedforward;
+import edu.wpi.first.math.filter.Debouncer;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants;
 import frc.robot.util.LoggedTunableNumber;
+import frc.robot.util.LoopTiming;
+import frc.robot.util.ParallelIOUpdater;
 import org.littletonrobotics.junction.AutoLogOutput;
 import org.littletonrobotics.junction.Logger;
 
@@ -14,6 +17,7 @@ public class Shooter extends SubsystemBase {
   private double setpoint;
   private ShooterIO io;
   private final ShooterIOInputsAutoLogged inputs = new ShooterIOInputsAutoLogged();
+  private final LoopTiming.Probe periodicTiming = LoopTiming.probe("Shooter");
   public double voltageCommand;
 
   public static final LoggedTunableNumber shootVelocity =
@@ -26,6 +30,10 @@ public class Shooter extends SubsystemBase {
       new LoggedTunableNumber("Outtake/SpinDurationSec");
   private static final LoggedTunableNumber kP = new LoggedTunableNumber("Outtake/kP");
   private static final LoggedTunableNumber kD = new LoggedTunableNumber("Outtake/kD");
+  private static final LoggedTunableNumber atSpeedTolerance =
+      new LoggedTunableNumber("Outtake/AtSpeedToleranceRPMs");
+  private static final LoggedTunableNumber atSpeedDwellSec =
+      new LoggedTunableNumber("Outtake/AtSpeedDwellSec");
 
   private PIDController controller = new PIDController(0.0, 0.0, 0.0);
   private final SimpleMotorFeedforward ffModel;
@@ -38,10 +46,17 @@ public class Shooter extends SubsystemBase {
   };
 
   private OuttakeMode mode = OuttakeMode.kStopped;
+  private Debouncer atSpeedDebouncer = new Debouncer(0.0);
+  private boolean atSpeed = false;
+  private double aimedShootVelocity = Double.NaN; // From the shot solver, NaN uses the tunable
+  private double outputScale = 1.0;
+  private long tunablesVersion = -1;
+  private final int tunableSubscriber = LoggedTunableNumber.registerSubscriber();
 
   public Shooter(ShooterIO io) {
     System.out.println("[Init] Creating Outtake");
     this.io = io;
+    ParallelIOUpdater.register(this::updateInputs);
     io.setBrakeMode(false);
 
     shootVelocity.initDefault(Constants.ShooterConstants.kShooterRPM);
@@ -50,30 +65,44 @@ public class Shooter extends SubsystemBase {
     spinDurationSec.initDefault(1.5);
     kP.initDefault(Constants.ShooterConstants.kP);
     kD.initDefault(Constants.ShooterConstants.kD);
+    atSpeedTolerance.initDefault(Constants.ShooterConstants.kAtSpeedToleranceRPM);
+    atSpeedDwellSec.initDefault(Constants.ShooterConstants.kAtSpeedDwellSecs);
 
     // Switch constants based on mode (the physics simulator is treated as a
     // separate robot with different tuning)
     switch (Constants.getRobot()) {
       case ROBOT_REAL:
-        ffModel = new SimpleMotorFeedforward(0.001, 0.0060);
+        // TODO: characterize, kV is the motor free speed value until then
+        ffModel = new SimpleMotorFeedforward(0.001, Constants.ShooterConstants.kV);
         break;
       case ROBOT_SIM:
       default:
-        ffModel = new SimpleMotorFeedforward(0.0, 0.0055);
+        ffModel = new SimpleMotorFeedforward(0.0, Constants.ShooterConstants.kV);
         break;
     }
   }
 
+  /** Reads the flywheel motors, called by the ParallelIOUpdater before periodic. */
+  public void updateInputs() {
+    io.updateInputs(inputs);
+  }
+
   @Override
   public void periodic() {
+    periodicTiming.start();
     setpoint = 0.0;
-    io.updateInputs(inputs);
     Logger.processInputs("Outtake", inputs);
 
     // Update tunable numbers
-    if (kP.hasChanged(hashCode()) || kD.hasChanged(hashCode())) {
-      controller.setP(kP.get());
-      controller.setD(kD.get());
+    if (tunablesVersion != LoggedTunableNumber.getVersion()) {
+      tunablesVersion = LoggedTunableNumber.getVersion();
+      if (kP.hasChanged(tunableSubscriber) || kD.hasChanged(tunableSubscriber)) {
+        controller.setP(kP.get());
+        controller.setD(kD.get());
+      }
+      if (atSpeedDwellSec.hasChanged(tunableSubscriber)) {
+        atSpeedDebouncer = new Debouncer(atSpeedDwellSec.get());
+      }
     }
 
     // Reset when disabled
@@ -84,7 +113,7 @@ public class Shooter extends SubsystemBase {
     } else {
       switch (mode) {
         case kShoot:
-          setpoint = shootVelocity.get();
+          setpoint = Double.isNaN(aimedShootVelocity) ? shootVelocity.get() : aimedShootVelocity;
           break;
         case kDeliver:
           setpoint = deliverVelocity.get();
@@ -97,9 +126,22 @@ public class Shooter extends SubsystemBase {
           setpoint = 0.0;
       }
 
-      voltageCommand = ffModel.calculate(setpoint);
-      io.setVoltage(MathUtil.clamp(voltageCommand, -12.0, 12.0));
+      // Feedforward plus feedback on the measured speed, coast instead of braking when stopped
+      if (setpoint == 0.0) {
+        controller.reset();
+        voltageCommand = 0.0;
+      } else {
+        voltageCommand =
+            ffModel.calculate(setpoint) + controller.calculate(inputs.velocityRPMs, setpoint);
+      }
+      io.setVoltage(MathUtil.clamp(voltageCommand * outputScale, -12.0, 12.0));
     }
+
+    // At speed once the error has stayed within tolerance for the dwell time
+    atSpeed =
+        atSpeedDebouncer.calculate(
+            setpoint != 0.0 && Math.abs(inputs.velocityRPMs - setpoint) <= atSpeedTolerance.get());
+    periodicTiming.stop();
   }
 
   public void setDeliver() {
@@ -110,6 +152,19 @@ public class Shooter extends SubsystemBase {
     mode = OuttakeMode.kShoot;
   }
 
+  /**
+   * Sets the shoot velocity from an aimed shot, used instead of the tunable while shooting until
+   * cleared. Does not change the mode.
+   */
+  public void setAimedShootVelocity(double velocityRPMs) {
+    aimedShootVelocity = velocityRPMs;
+  }
+
+  /** Goes back to the tunable shoot velocity. */
+  public void clearAimedShootVelocity() {
+    aimedShootVelocity = Double.NaN;
+  }
+
   public void setReverse() {
     mode = OuttakeMode.kReverse;
   }
@@ -118,10 +173,24 @@ public class Shooter extends SubsystemBase {
     mode = OuttakeMode.kStopped;
   }
 
+  /** Scales the flywheel voltage, used by the power governor. Does not apply to setVoltage. */
+  public void setOutputScale(double scale) {
+    outputScale = scale;
+  }
+
   public void setVoltage(double voltage) {
     io.setVoltage(voltage);
   }
 
+  /**
+   * Returns whether the flywheel has been within tolerance of a nonzero setpoint for the dwell
+   * time, so a note can be fed.
+   */
+  @AutoLogOutput
+  public boolean atSpeed() {
+    return atSpeed;
+  }
+
   @AutoLogOutput
   public double getSetpointVelocityRPMs() {
     return setpoint;
@@ -1,16 +1,31 @@
 package frc.robot.subsystems.shooter;
 
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
 import com.ctre.phoenix6.configs.TalonFXConfiguration;
 import com.ctre.phoenix6.controls.Follower;
+import com.ctre.phoenix6.controls.VoltageOut;
 import com.ctre.phoenix6.hardware.TalonFX;
 import com.ctre.phoenix6.signals.NeutralModeValue;
 import frc.robot.Constants;
+import frc.robot.Constants.CAN;
 import frc.robot.Constants.ShooterConstants;
+import frc.robot.util.StatusSignalRegistry;
 
 public class ShooterIOReal implements ShooterIO {
   private final TalonFX motorBottom;
   private final TalonFX motorTop;
 
+  private final StatusSignal<Double> velocity;
+  private final StatusSignal<Double> appliedVolts;
+  private final StatusSignal<Double> current;
+
+  private final VoltageOut topVoltageRequest =
+      new VoltageOut(0.0).withUpdateFreqHz(CAN.kControlUpdateFreqHz);
+  private final VoltageOut bottomVoltageRequest =
+      new VoltageOut(0.0).withUpdateFreqHz(CAN.kControlUpdateFreqHz);
+  private double lastVoltage = Double.NaN; // Unchanged requests are not resent
+
   public ShooterIOReal() {
     System.out.println("[Init] Creating OuttakeIOReal");
 
@@ -22,22 +37,37 @@ public class ShooterIOReal implements ShooterIO {
     config.MotorOutput.NeutralMode = NeutralModeValue.Coast;
     motorBottom.getConfigurator().apply(config);
     motorTop.setControl(new Follower(Constants.CAN.kShooterBottom, false));
+
+    velocity = motorBottom.getVelocity();
+    appliedVolts = motorTop.getMotorVoltage();
+    current = motorTop.getTorqueCurrent();
+    BaseStatusSignal.setUpdateFrequencyForAll(
+        CAN.kStatusUpdateFreqHz, velocity, appliedVolts, current);
+    // The follower needs the leader's output frames
+    motorBottom.getDutyCycle().setUpdateFrequency(100.0);
+    motorBottom.optimizeBusUtilization();
+    motorTop.optimizeBusUtilization();
+    StatusSignalRegistry.register(motorBottom, velocity);
+    StatusSignalRegistry.register(motorTop, appliedVolts, current);
   }
 
   @Override
   public void updateInputs(ShooterIOInputs inputs) {
+    // Signals are refreshed by the StatusSignalRegistry at the start of the loop. The motors are
+    // driven with inverted voltage, so the velocity is inverted to match for closed loop control
     inputs.velocityRPMs =
-        (motorBottom.getVelocity().getValueAsDouble()
-                / Constants.ShooterConstants.kSHOOTER_GEAR_RATIO)
-            * 60.0;
-    inputs.appliedVolts = motorTop.getMotorVoltage().getValueAsDouble();
-    inputs.currentAmps = motorTop.getTorqueCurrent().getValueAsDouble();
+        (-velocity.getValueAsDouble() / Constants.ShooterConstants.kSHOOTER_GEAR_RATIO) * 60.0;
+    inputs.appliedVolts = appliedVolts.getValueAsDouble();
+    inputs.currentAmps = current.getValueAsDouble();
   }
 
   @Override
   public void setVoltage(double voltage) {
-    motorTop.setVoltage(-voltage);
-    motorBottom.setVoltage(-voltage);
+    if (voltage != lastVoltage) {
+      motorTop.setControl(topVoltageRequest.withOutput(-voltage));
+      motorBottom.setControl(bottomVoltageRequest.withOutput(-voltage));
+      lastVoltage = voltage;
+    }
   }
 
   @Override
@@ -53,5 +83,6 @@ public class ShooterIOReal implements ShooterIO {
   @Override
   public void stop() {
     motorTop.stopMotor();
+    lastVoltage = Double.NaN; // Resend the next voltage request
   }
 }
@@ -0,0 +1,222 @@
+package frc.robot.subsystems.superstructure;
+
+import edu.wpi.first.math.geometry.Twist2d;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import edu.wpi.first.wpilibj2.command.button.Trigger;
+import frc.robot.Constants.ShooterConstants;
+import frc.robot.Constants.SuperstructureConstants;
+import frc.robot.subsystems.arm.Arm;
+import frc.robot.subsystems.drive.Drive;
+import frc.robot.subsystems.indexer.Indexer;
+import frc.robot.subsystems.intake.Intake;
+import frc.robot.subsystems.shooter.Shooter;
+import frc.robot.util.LoopTiming;
+import frc.robot.util.ShotSolver;
+import org.littletonrobotics.junction.AutoLogOutput;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Coordinates the intake, indexer, shooter and arm through a note cycle:
+ *
+ * <pre>
+ * IDLE -> INTAKING -> STOWED -> SPINNING_UP -> FEEDING -> IDLE
+ * </pre>
+ *
+ * <p>Stages overlap where it is safe. If a shot is wanted while intaking, the flywheel spins up and
+ * the arm moves to the shooting angle before the note is in, and a note that arrives with the
+ * flywheel already at speed goes straight to feeding. Feeding starts as soon as the flywheel is at
+ * speed and the arm is at its goal instead of after a fixed wait.
+ *
+ * <p>The arm angle and flywheel speed come from the shared {@link ShotSolver}, the same as
+ * ArmToShoot. While a command holds the arm, such as ArmToShoot, the arm is left to that command.
+ *
+ * <p>The mechanisms are only driven while {@link #intakeCommand()} or {@link #shootCommand()} is
+ * running, so other bindings can still run them directly otherwise. Every transition is logged
+ * with the time spent in the previous state, and the time from starting to intake until the note
+ * is fed is logged as the cycle time.
+ */
+public class Superstructure extends SubsystemBase {
+  public static enum State {
+    IDLE,
+    INTAKING,
+    STOWED,
+    SPINNING_UP,
+    FEEDING
+  }
+
+  private final Intake intake;
+  private final Indexer indexer;
+  private final Shooter shooter;
+  private final Arm arm;
+  private final Drive drive;
+  private final ShotSolver solver;
+  private final Twist2d fieldVelocity = new Twist2d();
+  private final LoopTiming.Probe periodicTiming = LoopTiming.probe("Superstructure");
+
+  private State state = State.IDLE;
+  private double stateStartTime = 0.0;
+  private double cycleStartTime = Double.NaN;
+  private double noteClearedTime = Double.NaN;
+  private boolean wantsIntake = false;
+  private boolean wantsShot = false;
+  private boolean aimingArm = false;
+
+  public Superstructure(
+      Intake intake, Indexer indexer, Shooter shooter, Arm arm, Drive drive, ShotSolver solver) {
+    this.intake = intake;
+    this.indexer = indexer;
+    this.shooter = shooter;
+    this.arm = arm;
+    this.drive = drive;
+    this.solver = solver;
+
+    // Hold the mechanisms while anything is requested, which also keeps their default commands
+    // from stopping them
+    new Trigger(() -> wantsIntake || wantsShot)
+        .whileTrue(Commands.run(this::applyOutputs, intake, indexer, shooter));
+  }
+
+  @Override
+  public void periodic() {
+    periodicTiming.start();
+    double now = Timer.getFPGATimestamp();
+
+    // Update the state from the sensors and requests
+    switch (state) {
+      case IDLE:
+        if (intake.hasNote()) {
+          setState(State.STOWED, now);
+        } else if (wantsIntake) {
+          setState(State.INTAKING, now);
+        }
+        break;
+      case INTAKING:
+        if (intake.hasNote()) {
+          setState(wantsShot ? State.SPINNING_UP : State.STOWED, now);
+        } else if (!wantsIntake) {
+          setState(State.IDLE, now);
+        }
+        break;
+      case STOWED:
+        if (!intake.hasNote()) {
+          setState(State.IDLE, now);
+        } else if (wantsShot) {
+          setState(State.SPINNING_UP, now);
+        }
+        break;
+      case SPINNING_UP:
+        if (!wantsShot) {
+          setState(State.STOWED, now);
+        } else if ((shooter.atSpeed() && arm.isAtGoal())
+            || now - stateStartTime > ShooterConstants.shootRampUpTimeSecs) {
+          setState(State.FEEDING, now);
+        }
+        break;
+      case FEEDING:
+        if (intake.hasNoNote() && Double.isNaN(noteClearedTime)) {
+          noteClearedTime = now;
+        }
+        if (!wantsShot
+            || now - noteClearedTime > SuperstructureConstants.kFeedClearSecs
+            || now - stateStartTime > SuperstructureConstants.kFeedTimeoutSecs) {
+          if (!Double.isNaN(cycleStartTime)) {
+            Logger.recordOutput("Superstructure/CycleTimeSecs", now - cycleStartTime);
+          }
+          setState(intake.hasNote() ? State.STOWED : State.IDLE, now);
+        }
+        break;
+    }
+
+    // Return the arm once nothing wants a shot, the mechanisms are driven by applyOutputs
+    if (!wantsShot && aimingArm) {
+      shooter.clearAimedShootVelocity();
+      if (!armHeld()) {
+        arm.setTargetPos(SuperstructureConstants.kStowArmAngleDeg);
+      }
+      aimingArm = false;
+    }
+    periodicTiming.stop();
+  }
+
+  /** Sets the mechanisms for the current state. Runs after periodic while a request is active. */
+  private void applyOutputs() {
+    boolean spinUp = wantsShot && state != State.IDLE;
+    if (spinUp) {
+      shooter.setShoot();
+    } else {
+      shooter.stop();
+    }
+    if (armHeld()) {
+      // The command holding the arm aims it from the same solver
+      aimingArm = false;
+    } else if (spinUp) {
+      solver.updateSpeaker(drive.getPose(), drive.getFieldVelocity(fieldVelocity));
+      shooter.setAimedShootVelocity(solver.getFlywheelRPM());
+      if (aimingArm) {
+        arm.updateTargetPos(solver.getArmAngleDeg());
+      } else {
+        // Only reset the profile when starting to aim, resetting every loop stops the arm
+        arm.setTargetPos(solver.getArmAngleDeg());
+        aimingArm = true;
+      }
+    }
+    switch (state) {
+      case INTAKING:
+        intake.eat();
+        indexer.stop();
+        break;
+      case FEEDING:
+        intake.digest();
+        indexer.index();
+        break;
+      default:
+        intake.stop();
+        indexer.stop();
+        break;
+    }
+  }
+
+  /** Returns whether a command such as ArmToShoot holds the arm. */
+  private boolean armHeld() {
+    return arm.getCurrentCommand() != null;
+  }
+
+  private void setState(State newState, double now) {
+    Logger.recordOutput("Superstructure/Transition", state + " -> " + newState);
+    Logger.recordOutput("Superstructure/StateSecs/" + state, now - stateStartTime);
+    if (newState == State.INTAKING) {
+      cycleStartTime = now;
+    } else if (newState == State.IDLE || newState == State.STOWED && state == State.FEEDING) {
+      cycleStartTime = Double.NaN;
+    }
+    if (newState == State.FEEDING) {
+      noteClearedTime = Double.NaN;
+    }
+    state = newState;
+    stateStartTime = now;
+  }
+
+  @AutoLogOutput
+  public State getState() {
+    return state;
+  }
+
+  /**
+   * Runs the intake until a note is in, then holds it. Does not require any subsystems, so it can
+   * run together with {@link #shootCommand()}.
+   */
+  public Command intakeCommand() {
+    return Commands.startEnd(() -> wantsIntake = true, () -> wantsIntake = false);
+  }
+
+  /**
+   * Spins up and moves the arm, then feeds the note once both are ready. Can be held while still
+   * intaking to spin up early.
+   */
+  public Command shootCommand() {
+    return Commands.startEnd(() -> wantsShot = true, () -> wantsShot = false);
+  }
+}
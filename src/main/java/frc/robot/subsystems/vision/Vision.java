@@ -0,0 +1,79 @@
+package frc.robot.subsystems.vision;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.Constants.VisionConstants;
+import frc.robot.FieldConstants;
+import frc.robot.subsystems.drive.Drive;
+import frc.robot.util.LoopTiming;
+import frc.robot.util.ParallelIOUpdater;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Collects AprilTag pose observations from every camera and feeds them to the drive pose estimate.
+ * Each camera is its own {@link VisionIO}, so observations are logged and can be replayed.
+ */
+public class Vision extends SubsystemBase {
+  private final Drive drive;
+  private final VisionIO[] io;
+  private final VisionIOInputsAutoLogged[] inputs;
+  private final String[] inputsKeys;
+  private final LoopTiming.Probe periodicTiming = LoopTiming.probe("Vision");
+
+  public Vision(Drive drive, VisionIO... io) {
+    System.out.println("[Init] Creating Vision");
+    this.drive = drive;
+    this.io = io;
+    inputs = new VisionIOInputsAutoLogged[io.length];
+    inputsKeys = new String[io.length];
+    for (int i = 0; i < io.length; i++) {
+      inputs[i] = new VisionIOInputsAutoLogged();
+      inputsKeys[i] = "Vision/Camera" + Integer.toString(i);
+    }
+    ParallelIOUpdater.register(this::updateInputs);
+  }
+
+  /** Drains each camera's observations into its inputs, called by the ParallelIOUpdater. */
+  public void updateInputs() {
+    for (int i = 0; i < io.length; i++) {
+      io[i].updateInputs(inputs[i]);
+    }
+  }
+
+  @Override
+  public void periodic() {
+    periodicTiming.start();
+    for (int i = 0; i < io.length; i++) {
+      Logger.processInputs(inputsKeys[i], inputs[i]);
+    }
+
+    for (int i = 0; i < io.length; i++) {
+      for (int j = 0; j < inputs[i].timestamps.length; j++) {
+        Pose2d robotPose = inputs[i].robotPoses[j];
+        int tagCount = inputs[i].tagCounts[j];
+        double distance = inputs[i].averageTagDistances[j];
+
+        // Reject ambiguous single tag results and poses off the field
+        if (tagCount == 0
+            || inputs[i].ambiguities[j] > VisionConstants.maxAmbiguity
+            || robotPose.getX() < 0.0
+            || robotPose.getX() > FieldConstants.fieldLength
+            || robotPose.getY() < 0.0
+            || robotPose.getY() > FieldConstants.fieldWidth) {
+          continue;
+        }
+
+        // Trust closer tags and multi-tag results more. Single tag headings are too noisy to use.
+        double stdDevFactor = distance * distance / tagCount;
+        double xyStdDev = VisionConstants.xyStdDevCoefficient * stdDevFactor;
+        double thetaStdDev =
+            tagCount > 1
+                ? VisionConstants.thetaStdDevCoefficient * stdDevFactor
+                : Double.POSITIVE_INFINITY;
+
+        drive.addVisionMeasurement(robotPose, inputs[i].timestamps[j], xyStdDev, thetaStdDev);
+      }
+    }
+    periodicTiming.stop();
+  }
+}
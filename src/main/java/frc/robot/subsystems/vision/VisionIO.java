@@ -0,0 +1,23 @@
+package frc.robot.subsystems.vision;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import org.littletonrobotics.junction.AutoLog;
+
+/** The interface for a single AprilTag camera. */
+public interface VisionIO {
+  @AutoLog
+  public static class VisionIOInputs {
+    public boolean connected = false;
+
+    // Pose observations received since the last update, oldest first. All arrays have one
+    // entry per observation.
+    public double[] timestamps = new double[] {};
+    public Pose2d[] robotPoses = new Pose2d[] {};
+    public int[] tagCounts = new int[] {};
+    public double[] averageTagDistances = new double[] {};
+    public double[] ambiguities = new double[] {};
+  }
+
+  /** Updates the set of loggable inputs. */
+  public default void updateInputs(VisionIOInputs inputs) {}
+}
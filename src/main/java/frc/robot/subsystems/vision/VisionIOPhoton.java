@@ -0,0 +1,123 @@
+package frc.robot.subsystems.vision;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Transform3d;
+import frc.robot.FieldConstants;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.photonvision.EstimatedRobotPose;
+import org.photonvision.PhotonCamera;
+import org.photonvision.PhotonPoseEstimator;
+import org.photonvision.PhotonPoseEstimator.PoseStrategy;
+import org.photonvision.targeting.PhotonPipelineResult;
+import org.photonvision.targeting.PhotonTrackedTarget;
+
+/**
+ * Hardware interface for a PhotonVision AprilTag camera.
+ *
+ * <p>Results are polled on a background thread and pushed into a lock-free queue, so a slow or
+ * disconnected camera never blocks the main loop. {@link #updateInputs} only drains the queue.
+ */
+public class VisionIOPhoton implements VisionIO {
+  private static final double POLL_PERIOD_SECS = 0.01;
+
+  private final PhotonCamera camera;
+  private final PhotonPoseEstimator poseEstimator;
+  private final Queue<Observation> observations = new ConcurrentLinkedQueue<>();
+  private volatile boolean connected = false;
+  private double lastResultTimestamp = -1.0;
+
+  private static record Observation(
+      double timestamp,
+      Pose2d robotPose,
+      int tagCount,
+      double averageTagDistance,
+      double ambiguity) {}
+
+  /**
+   * Creates a new camera and starts polling it.
+   *
+   * @param cameraName Name of the camera in PhotonVision
+   * @param robotToCamera Transform from the robot center to the camera
+   */
+  public VisionIOPhoton(String cameraName, Transform3d robotToCamera) {
+    System.out.println("[Init] Creating VisionIOPhoton " + cameraName);
+    camera = new PhotonCamera(cameraName);
+    poseEstimator =
+        new PhotonPoseEstimator(
+            FieldConstants.aprilTags,
+            PoseStrategy.MULTI_TAG_PNP_ON_COPROCESSOR,
+            camera,
+            robotToCamera);
+    poseEstimator.setMultiTagFallbackStrategy(PoseStrategy.LOWEST_AMBIGUITY);
+
+    Thread thread = new Thread(this::poll, "VisionIOPhoton-" + cameraName);
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  @Override
+  public void updateInputs(VisionIOInputs inputs) {
+    inputs.connected = connected;
+
+    int count = observations.size();
+    inputs.timestamps = new double[count];
+    inputs.robotPoses = new Pose2d[count];
+    inputs.tagCounts = new int[count];
+    inputs.averageTagDistances = new double[count];
+    inputs.ambiguities = new double[count];
+
+    // The poll thread may add more while draining; those wait for the next cycle
+    for (int i = 0; i < count; i++) {
+      Observation observation = observations.poll();
+      inputs.timestamps[i] = observation.timestamp();
+      inputs.robotPoses[i] = observation.robotPose();
+      inputs.tagCounts[i] = observation.tagCount();
+      inputs.averageTagDistances[i] = observation.averageTagDistance();
+      inputs.ambiguities[i] = observation.ambiguity();
+    }
+  }
+
+  /** Polls the camera for new results. Runs on the background thread. */
+  private void poll() {
+    while (true) {
+      try {
+        Thread.sleep((long) (POLL_PERIOD_SECS * 1000.0));
+      } catch (InterruptedException e) {
+        e.printStackTrace();
+      }
+
+      connected = camera.isConnected();
+
+      // Read the result once and only process new frames
+      PhotonPipelineResult result = camera.getLatestResult();
+      double timestamp = result.getTimestampSeconds();
+      if (!result.hasTargets() || timestamp == lastResultTimestamp) {
+        continue;
+      }
+      lastResultTimestamp = timestamp;
+
+      Optional<EstimatedRobotPose> estimate = poseEstimator.update(result);
+      if (estimate.isEmpty()) {
+        continue;
+      }
+
+      double totalDistance = 0.0;
+      double maxAmbiguity = 0.0;
+      for (PhotonTrackedTarget target : estimate.get().targetsUsed) {
+        totalDistance += target.getBestCameraToTarget().getTranslation().getNorm();
+        maxAmbiguity = Math.max(maxAmbiguity, target.getPoseAmbiguity());
+      }
+      int tagCount = estimate.get().targetsUsed.size();
+
+      observations.offer(
+          new Observation(
+              estimate.get().timestampSeconds,
+              estimate.get().estimatedPose.toPose2d(),
+              tagCount,
+              tagCount > 0 ? totalDistance / tagCount : 0.0,
+              tagCount > 1 ? 0.0 : maxAmbiguity));
+    }
+  }
+}
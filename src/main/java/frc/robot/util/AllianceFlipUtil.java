@@ -17,6 +17,7 @@ import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.DriverStation.Alliance;
 import frc.robot.FieldConstants;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 /**
  * Utility functions for flipping from the blue to red alliance. By default, all translations and
@@ -54,15 +55,35 @@ public class AllianceFlipUtil {
   /** Flips a pose to the correct side of the field based on the current alliance color. */
   public static Pose2d apply(Pose2d pose) {
     if (shouldFlip()) {
-      return new Pose2d(
-          FieldConstants.fieldLength - pose.getX(),
-          pose.getY(),
-          new Rotation2d(-pose.getRotation().getCos(), pose.getRotation().getSin()));
+      return flip(pose);
     } else {
       return pose;
     }
   }
 
+  /** Flips a translation to the red side of the field, regardless of the alliance color. */
+  public static Translation2d flip(Translation2d translation) {
+    return new Translation2d(FieldConstants.fieldLength - translation.getX(), translation.getY());
+  }
+
+  /** Flips a pose to the red side of the field, regardless of the alliance color. */
+  public static Pose2d flip(Pose2d pose) {
+    return new Pose2d(
+        FieldConstants.fieldLength - pose.getX(),
+        pose.getY(),
+        new Rotation2d(-pose.getRotation().getCos(), pose.getRotation().getSin()));
+  }
+
+  /**
+   * Returns a supplier of the pose for the current alliance color. The flipped pose is computed
+   * once up front, so the supplier only checks the alliance and both versions are ready before it
+   * is known.
+   */
+  public static Supplier<Pose2d> precompute(Pose2d pose) {
+    Pose2d flipped = flip(pose);
+    return () -> shouldFlip() ? flipped : pose;
+  }
+
   /**
    * Flips a trajectory state to the correct side of the field based on the current alliance color.
    */
@@ -87,7 +108,7 @@ public class AllianceFlipUtil {
   /* Locations are in BLUE coordinates, so flip if robot is RED
    * TJG
    */
-  private static boolean shouldFlip() {
+  public static boolean shouldFlip() {
     Optional<Alliance> ally = DriverStation.getAlliance();
     if (ally.isPresent()) {
       if (ally.get() == Alliance.Red) {
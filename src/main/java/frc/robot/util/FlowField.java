@@ -0,0 +1,100 @@
+package frc.robot.util;
+
+import java.util.Arrays;
+
+/**
+ * Shortest paths from every node of a {@link NavGrid} to one goal, found with a single Dijkstra
+ * search outward from the goal. Moves cost the same in both directions, so following each node's
+ * next hop reaches the goal along a shortest grid path and finding a path needs no search at all.
+ * Should be built before any dynamic obstacles are added, and not used while there are any.
+ */
+public class FlowField {
+  private static final double SQRT_2 = Math.sqrt(2.0);
+
+  private final NavGrid grid;
+  private final int goal;
+  private final int[] next; // Next node toward the goal, -1 if the goal can't be reached
+
+  /**
+   * Builds the flow field.
+   *
+   * @param grid The grid to search
+   * @param goal The goal node, should not be blocked
+   */
+  public FlowField(NavGrid grid, int goal) {
+    this.grid = grid;
+    this.goal = goal;
+    int nodeCount = grid.getNodeCount();
+    int cols = grid.getCols();
+    next = new int[nodeCount];
+    Arrays.fill(next, -1);
+    double[] cost = new double[nodeCount];
+    Arrays.fill(cost, Double.POSITIVE_INFINITY);
+    boolean[] closed = new boolean[nodeCount];
+    NodeHeap open = new NodeHeap(nodeCount);
+
+    cost[goal] = 0.0;
+    next[goal] = goal;
+    open.push(goal, 0.0);
+    while (!open.isEmpty()) {
+      int node = open.pop();
+      closed[node] = true;
+      int col = node % cols;
+      int row = node / cols;
+      for (int dRow = -1; dRow <= 1; dRow++) {
+        for (int dCol = -1; dCol <= 1; dCol++) {
+          if ((dRow == 0 && dCol == 0) || !grid.canMove(col, row, dCol, dRow)) {
+            continue;
+          }
+          int neighbor = (row + dRow) * cols + col + dCol;
+          double newCost = cost[node] + (dRow != 0 && dCol != 0 ? SQRT_2 : 1.0);
+          if (!closed[neighbor] && newCost < cost[neighbor]) {
+            cost[neighbor] = newCost;
+            next[neighbor] = node;
+            open.push(neighbor, newCost);
+          }
+        }
+      }
+    }
+  }
+
+  public int getGoal() {
+    return goal;
+  }
+
+  /**
+   * Follows the flow field from a start node to the goal, keeping only the nodes where the path
+   * has to turn because the straight line from the previous corner is blocked.
+   *
+   * @return The corners of the path from start to goal, including both, or null if the goal can't
+   *     be reached from the start
+   */
+  public int[] getPath(int start) {
+    if (next[start] == -1) {
+      return null;
+    }
+
+    int[] corners = new int[16];
+    int count = 0;
+    corners[count++] = start;
+    int corner = start;
+    int prev = start;
+    int node = next[start];
+    while (prev != goal) {
+      if (!grid.lineOfSight(corner, node)) {
+        if (count == corners.length) {
+          corners = Arrays.copyOf(corners, count * 2);
+        }
+        corners[count++] = prev;
+        corner = prev;
+      }
+      prev = node;
+      node = next[node];
+    }
+
+    // A path to the same node still needs a start and an end point
+    corners = Arrays.copyOf(corners, count + 1);
+    corners[count] = goal;
+    return corners;
+  }
+}
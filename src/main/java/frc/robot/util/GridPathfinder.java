@@ -0,0 +1,382 @@
+package frc.robot.util;
+
+import com.pathplanner.lib.path.GoalEndState;
+import com.pathplanner.lib.path.PathConstraints;
+import com.pathplanner.lib.path.PathPlannerPath;
+import com.pathplanner.lib.path.PathPoint;
+import com.pathplanner.lib.pathfinding.Pathfinder;
+import edu.wpi.first.math.Pair;
+import edu.wpi.first.math.geometry.Translation2d;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Pathfinder that runs Theta* over the {@link NavGrid} on a background thread.
+ *
+ * <p>Theta* is A* where each node may take its parent's parent as its own parent whenever there is
+ * a straight line between them, so the result is already an any-angle path with only a few corners
+ * and needs no separate simplification pass. The open list is a binary heap of int node ids with
+ * the costs in double arrays, so a search allocates nothing but the final path. The corners are
+ * rounded with quadratic Bezier curves and sampled into path points for PathPlanner to follow.
+ *
+ * <p>Paths to a few fixed goals can be looked up in precomputed {@link FlowField}s instead, which
+ * are built when the thread starts. These are skipped while there are dynamic obstacles.
+ */
+public class GridPathfinder implements Pathfinder {
+  private static final double SAMPLE_SPACING_METERS = 0.05;
+  private static final double SQRT_2 = Math.sqrt(2.0);
+
+  private final NavGrid grid;
+  private final List<Translation2d> flowFieldGoals;
+  private final List<FlowField> flowFields = new ArrayList<>();
+
+  // Search state, indexed by node id. Only used by the search thread.
+  private final double[] gCost;
+  private final int[] parent;
+  private final boolean[] closed;
+  private final NodeHeap open;
+
+  // Requests from the main thread, guarded by this
+  private double startX = 0.0;
+  private double startY = 0.0;
+  private double goalX = 0.0;
+  private double goalY = 0.0;
+  private double[][] pendingObstacles = null;
+  private boolean requestPending = false;
+  private boolean newPathAvailable = false;
+  private List<PathPoint> currentPathPoints = Collections.emptyList();
+  private double lastSearchMs = 0.0;
+
+  /**
+   * Create a new GridPathfinder
+   *
+   * @param grid The grid to search
+   * @param flowFieldGoals Field positions to precompute flow fields to
+   */
+  public GridPathfinder(NavGrid grid, List<Translation2d> flowFieldGoals) {
+    this.grid = grid;
+    this.flowFieldGoals = flowFieldGoals;
+    int nodeCount = grid.getNodeCount();
+    gCost = new double[nodeCount];
+    parent = new int[nodeCount];
+    closed = new boolean[nodeCount];
+    open = new NodeHeap(nodeCount);
+
+    Thread thread = new Thread(this::runThread, "GridPathfinder");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  @Override
+  public synchronized boolean isNewPathAvailable() {
+    return newPathAvailable;
+  }
+
+  @Override
+  public PathPlannerPath getCurrentPath(PathConstraints constraints, GoalEndState goalEndState) {
+    List<PathPoint> points = getCurrentPathPoints();
+    if (points.isEmpty()) {
+      return null;
+    }
+    return PathPlannerPath.fromPathPoints(points, constraints, goalEndState);
+  }
+
+  /**
+   * Returns the points of the latest path and clears the new path flag. The same list is returned
+   * until a new path is found, and it is empty if no path was found.
+   */
+  public synchronized List<PathPoint> getCurrentPathPoints() {
+    newPathAvailable = false;
+    return currentPathPoints;
+  }
+
+  /** Returns how long the latest search took, in milliseconds. */
+  public synchronized double getLastSearchMs() {
+    return lastSearchMs;
+  }
+
+  @Override
+  public synchronized void setStartPosition(Translation2d startPosition) {
+    startX = startPosition.getX();
+    startY = startPosition.getY();
+    requestPending = true;
+    notifyAll();
+  }
+
+  @Override
+  public synchronized void setGoalPosition(Translation2d goalPosition) {
+    goalX = goalPosition.getX();
+    goalY = goalPosition.getY();
+    requestPending = true;
+    notifyAll();
+  }
+
+  @Override
+  public synchronized void setDynamicObstacles(
+      List<Pair<Translation2d, Translation2d>> obs, Translation2d currentRobotPos) {
+    double[][] boxes = new double[obs.size()][];
+    for (int i = 0; i < obs.size(); i++) {
+      Translation2d first = obs.get(i).getFirst();
+      Translation2d second = obs.get(i).getSecond();
+      boxes[i] = new double[] {first.getX(), first.getY(), second.getX(), second.getY()};
+    }
+    pendingObstacles = boxes;
+    startX = currentRobotPos.getX();
+    startY = currentRobotPos.getY();
+    requestPending = true;
+    notifyAll();
+  }
+
+  private void runThread() {
+    // Before any requests, so no dynamic obstacles have been added yet
+    for (Translation2d goal : flowFieldGoals) {
+      int goalNode = grid.nearestFree(grid.nodeAt(goal.getX(), goal.getY()));
+      if (goalNode != -1) {
+        flowFields.add(new FlowField(grid, goalNode));
+      }
+    }
+
+    while (true) {
+      double fromX;
+      double fromY;
+      double toX;
+      double toY;
+      synchronized (this) {
+        while (!requestPending) {
+          try {
+            wait();
+          } catch (InterruptedException e) {
+            return;
+          }
+        }
+        requestPending = false;
+        fromX = startX;
+        fromY = startY;
+        toX = goalX;
+        toY = goalY;
+        if (pendingObstacles != null) {
+          grid.setDynamicObstacles(pendingObstacles);
+          pendingObstacles = null;
+        }
+      }
+
+      long startNanos = System.nanoTime();
+      List<PathPoint> points = findPath(fromX, fromY, toX, toY);
+      double searchMs = (System.nanoTime() - startNanos) / 1e6;
+
+      synchronized (this) {
+        currentPathPoints = points;
+        lastSearchMs = searchMs;
+        newPathAvailable = true;
+      }
+    }
+  }
+
+  /**
+   * Finds a path between two field positions. Positions inside an obstacle are moved to the
+   * nearest free node.
+   *
+   * @return The sampled path points, or an empty list if there is no path
+   */
+  List<PathPoint> findPath(double fromX, double fromY, double toX, double toY) {
+    int start = grid.nearestFree(grid.nodeAt(fromX, fromY));
+    int goal = grid.nearestFree(grid.nodeAt(toX, toY));
+    if (start == -1 || goal == -1) {
+      return Collections.emptyList();
+    }
+    if (start != grid.nodeAt(fromX, fromY)) {
+      fromX = grid.nodeX(start);
+      fromY = grid.nodeY(start);
+    }
+    if (goal != grid.nodeAt(toX, toY)) {
+      toX = grid.nodeX(goal);
+      toY = grid.nodeY(goal);
+    }
+
+    FlowField flowField = getFlowField(goal);
+    int[] corners = flowField != null ? flowField.getPath(start) : search(start, goal);
+    if (corners == null) {
+      return Collections.emptyList();
+    }
+
+    // Use the exact start and goal positions instead of their node centers
+    double[] xs = new double[corners.length];
+    double[] ys = new double[corners.length];
+    for (int i = 0; i < corners.length; i++) {
+      xs[i] = grid.nodeX(corners[i]);
+      ys[i] = grid.nodeY(corners[i]);
+    }
+    xs[0] = fromX;
+    ys[0] = fromY;
+    xs[corners.length - 1] = toX;
+    ys[corners.length - 1] = toY;
+    return samplePath(xs, ys);
+  }
+
+  /** Returns the flow field to a goal node, or null if there isn't one that can be used. */
+  private FlowField getFlowField(int goal) {
+    if (grid.hasDynamicObstacles()) {
+      return null;
+    }
+    for (int i = 0; i < flowFields.size(); i++) {
+      if (flowFields.get(i).getGoal() == goal) {
+        return flowFields.get(i);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Runs Theta* from start to goal.
+   *
+   * @return The nodes of the path from start to goal, where consecutive nodes are in line of sight,
+   *     or null if the goal can't be reached
+   */
+  private int[] search(int start, int goal) {
+    Arrays.fill(gCost, Double.POSITIVE_INFINITY);
+    Arrays.fill(closed, false);
+    open.clear();
+
+    int cols = grid.getCols();
+    int goalCol = goal % cols;
+    int goalRow = goal / cols;
+
+    gCost[start] = 0.0;
+    parent[start] = start;
+    open.push(start, heuristic(start, goalCol, goalRow));
+
+    while (!open.isEmpty()) {
+      int node = open.pop();
+      if (node == goal) {
+        return buildPath(start, goal);
+      }
+      closed[node] = true;
+
+      int col = node % cols;
+      int row = node / cols;
+      for (int dRow = -1; dRow <= 1; dRow++) {
+        for (int dCol = -1; dCol <= 1; dCol++) {
+          if ((dRow == 0 && dCol == 0) || !grid.canMove(col, row, dCol, dRow)) {
+            continue;
+          }
+          int neighbor = (row + dRow) * cols + col + dCol;
+          if (closed[neighbor]) {
+            continue;
+          }
+
+          // Theta*: connect straight to the grandparent when nothing is in the way
+          int from = node;
+          double g;
+          if (parent[node] != node && grid.lineOfSight(parent[node], neighbor)) {
+            from = parent[node];
+            g = gCost[from] + distance(from, neighbor);
+          } else {
+            g = gCost[node] + (dRow != 0 && dCol != 0 ? SQRT_2 : 1.0);
+          }
+
+          if (g < gCost[neighbor]) {
+            gCost[neighbor] = g;
+            parent[neighbor] = from;
+            open.push(neighbor, g + heuristic(neighbor, goalCol, goalRow));
+          }
+        }
+      }
+    }
+    return null;
+  }
+
+  private int[] buildPath(int start, int goal) {
+    int length = 1;
+    for (int node = goal; node != start; node = parent[node]) {
+      length++;
+    }
+    // A path to the same node still needs a start and an end point
+    int[] path = new int[Math.max(length, 2)];
+    int node = goal;
+    for (int i = path.length - 1; i >= 0; i--) {
+      path[i] = node;
+      node = parent[node];
+    }
+    return path;
+  }
+
+  /** Distance between two nodes in node widths. */
+  private double distance(int a, int b) {
+    int cols = grid.getCols();
+    return Math.hypot(a % cols - b % cols, a / cols - b / cols);
+  }
+
+  private double heuristic(int node, int goalCol, int goalRow) {
+    int cols = grid.getCols();
+    return Math.hypot(node % cols - goalCol, node / cols - goalRow);
+  }
+
+  /**
+   * Samples the corner path into path points. Each corner is replaced by a quadratic Bezier curve
+   * that starts and ends partway along the segments either side of it, so the robot does not have
+   * to stop to change direction.
+   */
+  private List<PathPoint> samplePath(double[] xs, double[] ys) {
+    List<PathPoint> points = new ArrayList<>();
+    double cornerCut = grid.getNodeSizeMeters();
+    double prevX = xs[0];
+    double prevY = ys[0];
+    for (int i = 1; i < xs.length; i++) {
+      double endX = xs[i];
+      double endY = ys[i];
+      double nextCutX = endX;
+      double nextCutY = endY;
+      boolean isCorner = false;
+      if (i < xs.length - 1) {
+        // Cut at most half of each segment, so neighboring curves don't overlap
+        double inLength = Math.hypot(endX - xs[i - 1], endY - ys[i - 1]);
+        double outLength = Math.hypot(xs[i + 1] - endX, ys[i + 1] - endY);
+        isCorner = inLength > 1e-6 && outLength > 1e-6;
+      }
+      if (isCorner) {
+        double inLength = Math.hypot(endX - xs[i - 1], endY - ys[i - 1]);
+        double outLength = Math.hypot(xs[i + 1] - endX, ys[i + 1] - endY);
+        double cut = Math.min(cornerCut, 0.5 * Math.min(inLength, outLength));
+        nextCutX = endX + (xs[i + 1] - endX) * cut / outLength;
+        nextCutY = endY + (ys[i + 1] - endY) * cut / outLength;
+        endX -= (endX - xs[i - 1]) * cut / inLength;
+        endY -= (endY - ys[i - 1]) * cut / inLength;
+      }
+
+      // Straight section up to the start of the curve
+      double length = Math.hypot(endX - prevX, endY - prevY);
+      int samples = Math.max((int) Math.ceil(length / SAMPLE_SPACING_METERS), 1);
+      for (int j = 0; j < samples; j++) {
+        double t = (double) j / samples;
+        addPoint(points, prevX + (endX - prevX) * t, prevY + (endY - prevY) * t);
+      }
+
+      if (isCorner) {
+        double curveLength =
+            Math.hypot(xs[i] - endX, ys[i] - endY) + Math.hypot(nextCutX - xs[i], nextCutY - ys[i]);
+        int curveSamples = Math.max((int) Math.ceil(curveLength / SAMPLE_SPACING_METERS), 1);
+        for (int j = 0; j < curveSamples; j++) {
+          double t = (double) j / curveSamples;
+          double a = (1 - t) * (1 - t);
+          double b = 2 * (1 - t) * t;
+          double c = t * t;
+          addPoint(
+              points, a * endX + b * xs[i] + c * nextCutX, a * endY + b * ys[i] + c * nextCutY);
+        }
+        prevX = nextCutX;
+        prevY = nextCutY;
+      } else {
+        prevX = endX;
+        prevY = endY;
+      }
+    }
+    addPoint(points, prevX, prevY);
+    return points;
+  }
+
+  private static void addPoint(List<PathPoint> points, double x, double y) {
+    points.add(new PathPoint(new Translation2d(x, y), null));
+  }
+}
@@ -0,0 +1,53 @@
+package frc.robot.util;
+
+/**
+ * Lookup table that linearly interpolates between points. Keys and values are kept in primitive
+ * arrays, so a lookup is a binary search with no boxing or allocation. Keys outside the table
+ * return the first or last value.
+ */
+public class InterpolatingTable {
+  private final double[] keys;
+  private final double[] values;
+
+  /**
+   * @param keys Keys in strictly increasing order
+   * @param values Value at each key
+   */
+  public InterpolatingTable(double[] keys, double[] values) {
+    if (keys.length == 0 || keys.length != values.length) {
+      throw new IllegalArgumentException("Keys and values must be non-empty and the same length");
+    }
+    for (int i = 1; i < keys.length; i++) {
+      if (keys[i] <= keys[i - 1]) {
+        throw new IllegalArgumentException("Keys must be strictly increasing");
+      }
+    }
+    this.keys = keys.clone();
+    this.values = values.clone();
+  }
+
+  /** Returns the value at a key, interpolated between the closest points. */
+  public double get(double key) {
+    int last = keys.length - 1;
+    if (key <= keys[0]) {
+      return values[0];
+    }
+    if (key >= keys[last]) {
+      return values[last];
+    }
+
+    // Last key at or below the key
+    int low = 0;
+    int high = last;
+    while (high - low > 1) {
+      int mid = (low + high) >>> 1;
+      if (keys[mid] <= key) {
+        low = mid;
+      } else {
+        high = mid;
+      }
+    }
+    double fraction = (key - keys[low]) / (keys[high] - keys[low]);
+    return values[low] + (values[high] - values[low]) * fraction;
+  }
+}
@@ -4,10 +4,10 @@ import com.pathplanner.lib.path.GoalEndState;
 import com.pathplanner.lib.path.PathConstraints;
 import com.pathplanner.lib.path.PathPlannerPath;
 import com.pathplanner.lib.path.PathPoint;
-import com.pathplanner.lib.pathfinding.LocalADStar;
 import com.pathplanner.lib.pathfinding.Pathfinder;
 import edu.wpi.first.math.Pair;
 import edu.wpi.first.math.geometry.Translation2d;
+import frc.robot.FieldConstants;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -17,6 +17,7 @@ import org.littletonrobotics.junction.inputs.LoggableInputs;
 
 // NOTE: This file is available at
 // https://gist.github.com/mjansen4857/a8024b55eb427184dbd10ae8923bd57d
+// It has been changed to wrap our GridPathfinder instead of PathPlanner's LocalADStar.
 
 public class LocalADStarAK implements Pathfinder {
   private final ADStarIO io = new ADStarIO();
@@ -28,7 +29,7 @@ public class LocalADStarAK implements Pathfinder {
    */
   @Override
   public boolean isNewPathAvailable() {
-    if (Logger.hasReplaySource()) {
+    if (!Logger.hasReplaySource()) {
       io.updateIsNewPathAvailable();
     }
 
@@ -46,17 +47,19 @@ public class LocalADStarAK implements Pathfinder {
    */
   @Override
   public PathPlannerPath getCurrentPath(PathConstraints constraints, GoalEndState goalEndState) {
-    if (Logger.hasReplaySource()) {
-      io.updateCurrentPathPoints(constraints, goalEndState);
+    if (!Logger.hasReplaySource()) {
+      io.updateCurrentPathPoints();
+      Logger.recordOutput("LocalADStarAK/SearchMs", io.pathfinder.getLastSearchMs());
     }
 
     Logger.processInputs("LocalADStarAK", io);
 
-    if (io.currentPathPoints.isEmpty()) {
+    List<PathPoint> pathPoints = io.getCurrentPathPoints();
+    if (pathPoints.isEmpty()) {
       return null;
     }
 
-    return PathPlannerPath.fromPathPoints(io.currentPathPoints, constraints, goalEndState);
+    return PathPlannerPath.fromPathPoints(pathPoints, constraints, goalEndState);
   }
 
   /**
@@ -67,8 +70,8 @@ public class LocalADStarAK implements Pathfinder {
    */
   @Override
   public void setStartPosition(Translation2d startPosition) {
-    if (Logger.hasReplaySource()) {
-      io.adStar.setStartPosition(startPosition);
+    if (!Logger.hasReplaySource()) {
+      io.pathfinder.setStartPosition(startPosition);
     }
   }
 
@@ -80,8 +83,8 @@ public class LocalADStarAK implements Pathfinder {
    */
   @Override
   public void setGoalPosition(Translation2d goalPosition) {
-    if (Logger.hasReplaySource()) {
-      io.adStar.setGoalPosition(goalPosition);
+    if (!Logger.hasReplaySource()) {
+      io.pathfinder.setGoalPosition(goalPosition);
     }
   }
 
@@ -96,56 +99,108 @@ public class LocalADStarAK implements Pathfinder {
   @Override
   public void setDynamicObstacles(
       List<Pair<Translation2d, Translation2d>> obs, Translation2d currentRobotPos) {
-    io.adStar.setDynamicObstacles(obs, currentRobotPos);
+    if (!Logger.hasReplaySource()) {
+      io.pathfinder.setDynamicObstacles(obs, currentRobotPos);
+    }
   }
 
+  /** Scoring and pickup locations for both alliances, which most paths go to. */
+  static List<Translation2d> getFlowFieldGoals() {
+    List<Translation2d> goals = new ArrayList<>();
+    for (Translation2d goal :
+        new Translation2d[] {
+          FieldConstants.Speaker.centerSpeakerOpening.toTranslation2d(),
+          FieldConstants.ampCenter,
+          FieldConstants.sourceCenter
+        }) {
+      goals.add(goal);
+      goals.add(new Translation2d(FieldConstants.fieldLength - goal.getX(), goal.getY()));
+    }
+    return goals;
+  }
+
+  /**
+   * Logs the pathfinder's state. The path is only logged when it changes, as a float array holding
+   * the first point followed by the offset of each point from the previous one, and a version
+   * number that changes with it. On replay the path is only decoded when it is used.
+   */
   private static class ADStarIO implements LoggableInputs {
-    public LocalADStar adStar = new LocalADStar();
+    private static final float[] EMPTY_PATH = new float[0];
+
+    public GridPathfinder pathfinder =
+        new GridPathfinder(NavGrid.fromDeploy(), getFlowFieldGoals());
     public boolean isNewPathAvailable = false;
-    public List<PathPoint> currentPathPoints = Collections.emptyList();
+    private List<PathPoint> currentPathPoints = Collections.emptyList();
+    private int pathVersion = 0;
+    private int loggedPathVersion = -1;
+    private float[] encodedPath = null; // Replayed path waiting to be decoded
 
     @Override
     public void toLog(LogTable table) {
       table.put("IsNewPathAvailable", isNewPathAvailable);
-
-      double[] pointsLogged = new double[currentPathPoints.size() * 2];
-      int idx = 0;
-      for (PathPoint point : currentPathPoints) {
-        pointsLogged[idx] = point.position.getX();
-        pointsLogged[idx + 1] = point.position.getY();
-        idx += 2;
+      table.put("PathVersion", pathVersion);
+      if (pathVersion != loggedPathVersion) {
+        table.put("CurrentPathPoints", encodePath(currentPathPoints));
+        loggedPathVersion = pathVersion;
       }
-
-      table.put("CurrentPathPoints", pointsLogged);
     }
 
     @Override
     public void fromLog(LogTable table) {
       isNewPathAvailable = table.get("IsNewPathAvailable", false);
 
-      double[] pointsLogged = table.get("CurrentPathPoints", new double[0]);
-
-      List<PathPoint> pathPoints = new ArrayList<>();
-      for (int i = 0; i < pointsLogged.length; i += 2) {
-        pathPoints.add(
-            new PathPoint(new Translation2d(pointsLogged[i], pointsLogged[i + 1]), null));
+      int version = table.get("PathVersion", 0);
+      if (version != pathVersion) {
+        pathVersion = version;
+        encodedPath = table.get("CurrentPathPoints", EMPTY_PATH);
       }
-
-      currentPathPoints = pathPoints;
     }
 
     public void updateIsNewPathAvailable() {
-      isNewPathAvailable = adStar.isNewPathAvailable();
+      isNewPathAvailable = pathfinder.isNewPathAvailable();
     }
 
-    public void updateCurrentPathPoints(PathConstraints constraints, GoalEndState goalEndState) {
-      PathPlannerPath currentPath = adStar.getCurrentPath(constraints, goalEndState);
+    public void updateCurrentPathPoints() {
+      List<PathPoint> pathPoints = pathfinder.getCurrentPathPoints();
+      if (pathPoints != currentPathPoints) {
+        currentPathPoints = pathPoints;
+        pathVersion++;
+      }
+    }
+
+    public List<PathPoint> getCurrentPathPoints() {
+      if (encodedPath != null) {
+        currentPathPoints = decodePath(encodedPath);
+        encodedPath = null;
+      }
+      return currentPathPoints;
+    }
+
+    private static float[] encodePath(List<PathPoint> pathPoints) {
+      float[] encoded = new float[pathPoints.size() * 2];
+      double prevX = 0.0;
+      double prevY = 0.0;
+      for (int i = 0; i < pathPoints.size(); i++) {
+        Translation2d position = pathPoints.get(i).position;
+        encoded[2 * i] = (float) (position.getX() - prevX);
+        encoded[2 * i + 1] = (float) (position.getY() - prevY);
+        // Offset from the decoded point, so float rounding doesn't build up along the path
+        prevX += encoded[2 * i];
+        prevY += encoded[2 * i + 1];
+      }
+      return encoded;
+    }
 
-      if (currentPath != null) {
-        currentPathPoints = currentPath.getAllPathPoints();
-      } else {
-        currentPathPoints = Collections.emptyList();
+    private static List<PathPoint> decodePath(float[] encoded) {
+      List<PathPoint> pathPoints = new ArrayList<>(encoded.length / 2);
+      double x = 0.0;
+      double y = 0.0;
+      for (int i = 0; i + 1 < encoded.length; i += 2) {
+        x += encoded[i];
+        y += encoded[i + 1];
+        pathPoints.add(new PathPoint(new Translation2d(x, y), null));
       }
+      return pathPoints;
     }
   }
 }
@@ -8,22 +8,35 @@
 package frc.robot.util;
 // TJG
 import frc.robot.Constants;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import org.littletonrobotics.junction.networktables.LoggedDashboardNumber;
 
 /**
  * Class for a tunable number. Gets value from dashboard in tuning mode, returns default if not or
  * value not in dashboard.
+ *
+ * <p>A global version number is incremented whenever any tunable number changes, so callers can
+ * skip their {@link #hasChanged(int)} checks with a single comparison on loops where nothing
+ * changed. The version is updated from the logged dashboard values, so it replays identically.
+ *
+ * <p>Callers of {@link #hasChanged(int)} register once with {@link #registerSubscriber()} and pass
+ * the returned id. Each number keeps the last value seen by each subscriber in a primitive array
+ * indexed by that id, so checking for changes does not allocate.
  */
 public class LoggedTunableNumber {
   private static final String tableKey = "TunableNumbers";
+  private static final List<LoggedTunableNumber> allTunables = new ArrayList<>();
+  private static long version = 0;
+  private static int subscriberCount = 0;
 
   private final String key;
   private boolean hasDefault = false;
   private double defaultValue;
   private LoggedDashboardNumber dashboardNumber;
-  private Map<Integer, Double> lastHasChangedValues = new HashMap<>();
+  private double[] lastHasChangedValues = new double[0]; // Indexed by subscriber id, NaN if unseen
+  private double lastVersionValue; // Value when the version was last checked
 
   /**
    * Create a new LoggedTunableNumber
@@ -56,7 +69,10 @@ public class LoggedTunableNumber {
       this.defaultValue = defaultValue;
       if (Constants.tuningMode) {
         dashboardNumber = new LoggedDashboardNumber(key, defaultValue);
+        lastVersionValue = defaultValue;
+        allTunables.add(this);
       }
+      version++;
     }
   }
 
@@ -73,22 +89,65 @@ public class LoggedTunableNumber {
     }
   }
 
+  /**
+   * Registers a new caller of {@link #hasChanged(int)}. Should be called once per object, e.g. when
+   * initializing a field, not every loop.
+   *
+   * @return The id to pass to {@link #hasChanged(int)}
+   */
+  public static int registerSubscriber() {
+    return subscriberCount++;
+  }
+
   /**
    * Checks whether the number has changed since our last check
    *
-   * @param id Unique identifier for the caller to avoid conflicts when shared between multiple
-   *     objects. Recommended approach is to pass the result of "hashCode()"
+   * @param id Identifier of the caller from {@link #registerSubscriber()}, to avoid conflicts when
+   *     shared between multiple objects
    * @return True if the number has changed since the last time this method was called, false
    *     otherwise.
    */
   public boolean hasChanged(int id) {
+    if (id >= lastHasChangedValues.length) {
+      // Only grows the first time a new subscriber checks this number
+      int oldLength = lastHasChangedValues.length;
+      lastHasChangedValues = Arrays.copyOf(lastHasChangedValues, subscriberCount);
+      Arrays.fill(lastHasChangedValues, oldLength, subscriberCount, Double.NaN);
+    }
+
     double currentValue = get();
-    Double lastValue = lastHasChangedValues.get(id);
-    if (lastValue == null || currentValue != lastValue) {
-      lastHasChangedValues.put(id, currentValue);
+    if (currentValue != lastHasChangedValues[id]) {
+      lastHasChangedValues[id] = currentValue;
       return true;
     }
 
     return false;
   }
+
+  /**
+   * Checks every tunable number for a new dashboard value and increments the version if any
+   * changed. Should be called once per loop before any tunable numbers are read.
+   */
+  public static void updateVersion() {
+    boolean changed = false;
+    for (int i = 0; i < allTunables.size(); i++) {
+      LoggedTunableNumber tunable = allTunables.get(i);
+      double value = tunable.dashboardNumber.get();
+      if (value != tunable.lastVersionValue) {
+        tunable.lastVersionValue = value;
+        changed = true;
+      }
+    }
+    if (changed) {
+      version++;
+    }
+  }
+
+  /**
+   * Returns a number that changes whenever any tunable number changes. Callers can store it and
+   * only check individual numbers when it differs.
+   */
+  public static long getVersion() {
+    return version;
+  }
 }
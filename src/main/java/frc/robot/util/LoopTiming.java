@@ -0,0 +1,153 @@
+package frc.robot.util;
+
+import frc.robot.Constants;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Lightweight profiler for finding what causes loop overruns.
+ *
+ * <p>Wrap a section of the loop with {@link Probe#start()} and {@link Probe#stop()}. Each probe
+ * keeps its last few seconds of durations in a primitive ring buffer, so a probe costs two
+ * System.nanoTime() calls and an array write. Once per loop {@link #log(long)} records the latest
+ * durations under "LoopTiming/", and about once a second it also records the rolling p50, p99 and
+ * max of each probe. Samples longer than a probe's budget are counted as overruns, and when the
+ * whole loop overruns the slowest probe is logged as the likely cause. Probes may be nested (e.g.
+ * subsystem periodics inside the CommandScheduler), so the cause is picked by each probe's own
+ * time, excluding the probes nested inside it. Time the CommandScheduler spends in commands and
+ * triggers is then blamed on the scheduler rather than on its slowest subsystem.
+ */
+public final class LoopTiming {
+  private static final int kWindowSize = 250; // 5 seconds of loops
+  private static final int kStatsPeriodLoops = 50; // Recompute percentiles once a second
+
+  private static final List<Probe> probes = new ArrayList<>();
+  private static final long[] sortBuffer = new long[kWindowSize];
+  private static final long loopBudgetNanos = (long) (Constants.loopPeriodSecs * 1e9);
+  private static int loopCount = 0;
+  private static int loopOverruns = 0;
+  private static Probe activeProbe = null; // Innermost running probe
+
+  private LoopTiming() {}
+
+  /** Timer for one section of the loop. */
+  public static final class Probe {
+    private final String name;
+    private final String lastKey;
+    private final String p50Key;
+    private final String p99Key;
+    private final String maxKey;
+    private final String overrunsKey;
+    private final long budgetNanos;
+
+    private final long[] samples = new long[kWindowSize];
+    private int sampleIndex = 0;
+    private int sampleCount = 0;
+    private long startNanos = 0;
+    private long lastNanos = 0;
+    private long childNanos = 0; // Time spent in probes nested inside the current run
+    private long selfNanos = 0; // Last duration excluding nested probes
+    private boolean ranThisLoop = false;
+    private Probe parent = null;
+    private int overruns = 0;
+
+    private Probe(String name, double budgetSecs) {
+      this.name = name;
+      lastKey = "LoopTiming/" + name + "/LastMs";
+      p50Key = "LoopTiming/" + name + "/P50Ms";
+      p99Key = "LoopTiming/" + name + "/P99Ms";
+      maxKey = "LoopTiming/" + name + "/MaxMs";
+      overrunsKey = "LoopTiming/" + name + "/Overruns";
+      budgetNanos = (long) (budgetSecs * 1e9);
+    }
+
+    /** Starts timing the section. */
+    public void start() {
+      parent = activeProbe;
+      childNanos = 0;
+      activeProbe = this;
+      startNanos = System.nanoTime();
+    }
+
+    /** Stops timing the section and records the duration. */
+    public void stop() {
+      lastNanos = System.nanoTime() - startNanos;
+      selfNanos = lastNanos - childNanos;
+      if (parent != null) {
+        parent.childNanos += lastNanos;
+      }
+      samples[sampleIndex] = lastNanos;
+      sampleIndex = (sampleIndex + 1) % kWindowSize;
+      sampleCount = Math.min(sampleCount + 1, kWindowSize);
+      ranThisLoop = true;
+      if (lastNanos > budgetNanos) {
+        overruns++;
+      }
+      activeProbe = parent;
+    }
+
+    /** Returns the duration of the last run in nanoseconds. */
+    public long getLastNanos() {
+      return lastNanos;
+    }
+  }
+
+  /**
+   * Creates a probe whose budget is the full loop period.
+   *
+   * @param name Name of the section, used as the log key under "LoopTiming/"
+   */
+  public static Probe probe(String name) {
+    return probe(name, Constants.loopPeriodSecs);
+  }
+
+  /**
+   * Creates a probe.
+   *
+   * @param name Name of the section, used as the log key under "LoopTiming/"
+   * @param budgetSecs Runs longer than this are counted as overruns
+   */
+  public static Probe probe(String name, double budgetSecs) {
+    Probe probe = new Probe(name, budgetSecs);
+    probes.add(probe);
+    return probe;
+  }
+
+  /**
+   * Logs the probes that ran this loop. Should be called once at the end of each loop.
+   *
+   * @param loopNanos Duration of the whole loop in nanoseconds
+   */
+  public static void log(long loopNanos) {
+    boolean updateStats = ++loopCount % kStatsPeriodLoops == 0;
+    Probe slowest = null;
+    for (int i = 0; i < probes.size(); i++) {
+      Probe probe = probes.get(i);
+      if (probe.ranThisLoop) {
+        Logger.recordOutput(probe.lastKey, probe.lastNanos / 1e6);
+        if (slowest == null || probe.selfNanos > slowest.selfNanos) {
+          slowest = probe;
+        }
+        probe.ranThisLoop = false;
+      }
+
+      if (updateStats && probe.sampleCount > 0) {
+        System.arraycopy(probe.samples, 0, sortBuffer, 0, probe.sampleCount);
+        Arrays.sort(sortBuffer, 0, probe.sampleCount);
+        Logger.recordOutput(probe.p50Key, sortBuffer[probe.sampleCount / 2] / 1e6);
+        Logger.recordOutput(probe.p99Key, sortBuffer[(probe.sampleCount * 99) / 100] / 1e6);
+        Logger.recordOutput(probe.maxKey, sortBuffer[probe.sampleCount - 1] / 1e6);
+        Logger.recordOutput(probe.overrunsKey, probe.overruns);
+      }
+    }
+
+    Logger.recordOutput("LoopTiming/RobotPeriodicMs", loopNanos / 1e6);
+    if (loopNanos > loopBudgetNanos) {
+      loopOverruns++;
+      Logger.recordOutput("LoopTiming/Overruns", loopOverruns);
+      Logger.recordOutput("LoopTiming/OverrunSlowestProbe", slowest == null ? "" : slowest.name);
+    }
+  }
+}
@@ -0,0 +1,206 @@
+package frc.robot.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+import java.io.File;
+import java.io.IOException;
+import java.util.BitSet;
+
+/**
+ * Occupancy grid of the field, loaded from the PathPlanner navgrid. Nodes are numbered row by row
+ * (index = row * cols + col) and blocked nodes are stored in a BitSet, so searches can use plain
+ * int node ids and primitive arrays instead of node objects. Dynamic obstacles are kept in a
+ * separate set on top of the static field.
+ */
+public class NavGrid {
+  private final double nodeSizeMeters;
+  private final int cols;
+  private final int rows;
+  private final BitSet staticBlocked;
+  private final BitSet blocked;
+  private boolean hasDynamicObstacles = false;
+
+  private NavGrid(double nodeSizeMeters, int cols, int rows, BitSet staticBlocked) {
+    this.nodeSizeMeters = nodeSizeMeters;
+    this.cols = cols;
+    this.rows = rows;
+    this.staticBlocked = staticBlocked;
+    this.blocked = (BitSet) staticBlocked.clone();
+  }
+
+  /** Loads the navgrid from deploy/pathplanner/navgrid.json. */
+  public static NavGrid fromDeploy() {
+    File file = new File(Filesystem.getDeployDirectory(), "pathplanner/navgrid.json");
+    try {
+      JsonNode json = new ObjectMapper().readTree(file);
+      JsonNode grid = json.get("grid");
+      int rows = grid.size();
+      int cols = grid.get(0).size();
+      BitSet staticBlocked = new BitSet(rows * cols);
+      for (int row = 0; row < rows; row++) {
+        for (int col = 0; col < cols; col++) {
+          if (grid.get(row).get(col).asBoolean()) {
+            staticBlocked.set(row * cols + col);
+          }
+        }
+      }
+      return new NavGrid(json.get("nodeSizeMeters").asDouble(), cols, rows, staticBlocked);
+    } catch (IOException e) {
+      DriverStation.reportError("Failed to load navgrid: " + e.getMessage(), e.getStackTrace());
+      return new NavGrid(0.3, 1, 1, new BitSet());
+    }
+  }
+
+  public int getCols() {
+    return cols;
+  }
+
+  public int getRows() {
+    return rows;
+  }
+
+  public int getNodeCount() {
+    return cols * rows;
+  }
+
+  public double getNodeSizeMeters() {
+    return nodeSizeMeters;
+  }
+
+  /** Returns the node containing a field position, clamped to the grid. */
+  public int nodeAt(double x, double y) {
+    int col = Math.min(Math.max((int) Math.floor(x / nodeSizeMeters), 0), cols - 1);
+    int row = Math.min(Math.max((int) Math.floor(y / nodeSizeMeters), 0), rows - 1);
+    return row * cols + col;
+  }
+
+  /** Returns the field x coordinate of the center of a node. */
+  public double nodeX(int node) {
+    return (node % cols + 0.5) * nodeSizeMeters;
+  }
+
+  /** Returns the field y coordinate of the center of a node. */
+  public double nodeY(int node) {
+    return (node / cols + 0.5) * nodeSizeMeters;
+  }
+
+  /** Returns whether a node is blocked. Nodes outside the grid are treated as blocked. */
+  public boolean isBlocked(int col, int row) {
+    return col < 0 || row < 0 || col >= cols || row >= rows || blocked.get(row * cols + col);
+  }
+
+  public boolean isBlocked(int node) {
+    return blocked.get(node);
+  }
+
+  /**
+   * Returns whether a move of one node (including diagonals) is allowed. A diagonal move may not
+   * cut the corner of a blocked node.
+   */
+  public boolean canMove(int col, int row, int dCol, int dRow) {
+    if (isBlocked(col + dCol, row + dRow)) {
+      return false;
+    }
+    return dCol == 0 || dRow == 0 || (!isBlocked(col + dCol, row) && !isBlocked(col, row + dRow));
+  }
+
+  /** Returns whether any dynamic obstacles are set. */
+  public boolean hasDynamicObstacles() {
+    return hasDynamicObstacles;
+  }
+
+  /**
+   * Replaces the dynamic obstacles. Each obstacle is an axis aligned box given by two opposite
+   * corners, as {x1, y1, x2, y2} in meters.
+   */
+  public void setDynamicObstacles(double[][] boxes) {
+    blocked.clear();
+    blocked.or(staticBlocked);
+    hasDynamicObstacles = boxes.length > 0;
+    for (double[] box : boxes) {
+      int minCol = (int) Math.floor(Math.min(box[0], box[2]) / nodeSizeMeters);
+      int maxCol = (int) Math.ceil(Math.max(box[0], box[2]) / nodeSizeMeters);
+      int minRow = (int) Math.floor(Math.min(box[1], box[3]) / nodeSizeMeters);
+      int maxRow = (int) Math.ceil(Math.max(box[1], box[3]) / nodeSizeMeters);
+      for (int row = Math.max(minRow, 0); row <= Math.min(maxRow, rows - 1); row++) {
+        for (int col = Math.max(minCol, 0); col <= Math.min(maxCol, cols - 1); col++) {
+          blocked.set(row * cols + col);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the free node closest to the given node, searching outward ring by ring, or -1 if the
+   * whole grid is blocked.
+   */
+  public int nearestFree(int node) {
+    if (!blocked.get(node)) {
+      return node;
+    }
+    int col = node % cols;
+    int row = node / cols;
+    int best = -1;
+    int bestDistSq = Integer.MAX_VALUE;
+    for (int radius = 1; radius < Math.max(cols, rows); radius++) {
+      for (int r = row - radius; r <= row + radius; r++) {
+        for (int c = col - radius; c <= col + radius; c++) {
+          // Only the ring at this radius
+          if (Math.abs(r - row) != radius && Math.abs(c - col) != radius) {
+            continue;
+          }
+          int distSq = (r - row) * (r - row) + (c - col) * (c - col);
+          if (!isBlocked(c, r) && distSq < bestDistSq) {
+            best = r * cols + c;
+            bestDistSq = distSq;
+          }
+        }
+      }
+      if (best != -1) {
+        return best;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns whether the straight line between the centers of two nodes only crosses free nodes.
+   * Every node the line touches is checked, and a line passing exactly through a corner needs both
+   * nodes beside the corner to be free.
+   */
+  public boolean lineOfSight(int from, int to) {
+    int col = from % cols;
+    int row = from / cols;
+    int dCol = to % cols - col;
+    int dRow = to / cols - row;
+    int stepCol = dCol > 0 ? 1 : -1;
+    int stepRow = dRow > 0 ? 1 : -1;
+    int nCol = Math.abs(dCol);
+    int nRow = Math.abs(dRow);
+
+    for (int iCol = 0, iRow = 0; iCol < nCol || iRow < nRow; ) {
+      int decision = (1 + 2 * iCol) * nRow - (1 + 2 * iRow) * nCol;
+      if (decision == 0) {
+        if (isBlocked(col + stepCol, row) || isBlocked(col, row + stepRow)) {
+          return false;
+        }
+        col += stepCol;
+        row += stepRow;
+        iCol++;
+        iRow++;
+      } else if (decision < 0) {
+        col += stepCol;
+        iCol++;
+      } else {
+        row += stepRow;
+        iRow++;
+      }
+      if (isBlocked(col, row)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,94 @@
+package frc.robot.util;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of {@link NavGrid} node ids, keyed by a cost per node. Pushing a node that is
+ * already in the heap updates its cost instead of adding it twice.
+ */
+class NodeHeap {
+  private final int[] heap;
+  private final int[] heapIndex; // Position of each node in the heap, -1 if not in it
+  private final double[] keys;
+  private int size = 0;
+
+  NodeHeap(int nodeCount) {
+    heap = new int[nodeCount];
+    heapIndex = new int[nodeCount];
+    keys = new double[nodeCount];
+    Arrays.fill(heapIndex, -1);
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  void clear() {
+    for (int i = 0; i < size; i++) {
+      heapIndex[heap[i]] = -1;
+    }
+    size = 0;
+  }
+
+  /** Adds a node, or lowers its key if it is already in the heap. */
+  void push(int node, double key) {
+    keys[node] = key;
+    if (heapIndex[node] == -1) {
+      heap[size] = node;
+      heapIndex[node] = size;
+      siftUp(size++);
+    } else {
+      siftUp(heapIndex[node]);
+    }
+  }
+
+  /** Removes and returns the node with the lowest key. */
+  int pop() {
+    int top = heap[0];
+    heapIndex[top] = -1;
+    size--;
+    if (size > 0) {
+      heap[0] = heap[size];
+      heapIndex[heap[0]] = 0;
+      siftDown(0);
+    }
+    return top;
+  }
+
+  private void siftUp(int index) {
+    int node = heap[index];
+    while (index > 0) {
+      int parentIndex = (index - 1) / 2;
+      int parentNode = heap[parentIndex];
+      if (keys[parentNode] <= keys[node]) {
+        break;
+      }
+      heap[index] = parentNode;
+      heapIndex[parentNode] = index;
+      index = parentIndex;
+    }
+    heap[index] = node;
+    heapIndex[node] = index;
+  }
+
+  private void siftDown(int index) {
+    int node = heap[index];
+    while (true) {
+      int child = 2 * index + 1;
+      if (child >= size) {
+        break;
+      }
+      if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) {
+        child++;
+      }
+      if (keys[heap[child]] >= keys[node]) {
+        break;
+      }
+      heap[index] = heap[child];
+      heapIndex[heap[index]] = index;
+      index = child;
+    }
+    heap[index] = node;
+    heapIndex[node] = index;
+  }
+}
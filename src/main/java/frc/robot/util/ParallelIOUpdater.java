@@ -0,0 +1,65 @@
+package frc.robot.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs the hardware reads of every subsystem in parallel at the start of each loop.
+ *
+ * <p>Subsystems register a task that only fills their IO inputs (no logging and no outputs). The
+ * tasks run on a small fixed thread pool, so a subsystem blocking on CAN or I2C does not delay the
+ * others, and {@link #updateAll()} returns once all of them have finished. Each subsystem then
+ * passes its inputs to Logger.processInputs in its own periodic, which the CommandScheduler runs on
+ * the main thread in a fixed order, so replay is unaffected.
+ */
+public final class ParallelIOUpdater {
+  private static final int kThreadCount = 4;
+
+  private static final List<Runnable> tasks = new ArrayList<>();
+  private static final List<Future<?>> futures = new ArrayList<>();
+  private static ExecutorService executor = null;
+
+  private ParallelIOUpdater() {}
+
+  /**
+   * Registers a task that reads the hardware into a subsystem's inputs. The task must not touch
+   * the Logger or any state shared with other subsystems.
+   */
+  public static void register(Runnable task) {
+    tasks.add(task);
+  }
+
+  /** Runs every registered task and waits for all of them to finish. */
+  public static void updateAll() {
+    if (executor == null) {
+      executor =
+          Executors.newFixedThreadPool(
+              kThreadCount,
+              runnable -> {
+                Thread thread = new Thread(runnable, "ParallelIOUpdater");
+                thread.setDaemon(true);
+                return thread;
+              });
+    }
+
+    futures.clear();
+    for (int i = 0; i < tasks.size(); i++) {
+      futures.add(executor.submit(tasks.get(i)));
+    }
+    for (int i = 0; i < futures.size(); i++) {
+      try {
+        futures.get(i).get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (ExecutionException e) {
+        // Surface hardware read failures the same way as when they ran in periodic
+        throw new RuntimeException(e.getCause());
+      }
+    }
+  }
+}
@@ -0,0 +1,127 @@
+package frc.robot.util;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import java.util.Optional;
+
+/**
+ * Time-indexed ring buffer of robot poses. Samples are stored in primitive arrays so adding one
+ * does not allocate, and lookups use a binary search with linear interpolation between the
+ * neighboring samples. Samples older than the history length are discarded as new ones arrive.
+ */
+public class PoseHistoryBuffer {
+  private final double historySecs;
+  private final double[] timestamps;
+  private final double[] xs;
+  private final double[] ys;
+  private final double[] thetas;
+  private int head = 0; // Index of the oldest sample
+  private int size = 0;
+
+  /**
+   * Create a new PoseHistoryBuffer
+   *
+   * @param historySecs How long to keep samples for, in seconds
+   * @param capacity Maximum number of samples held, should cover the history at the sample rate
+   */
+  public PoseHistoryBuffer(double historySecs, int capacity) {
+    this.historySecs = historySecs;
+    timestamps = new double[capacity];
+    xs = new double[capacity];
+    ys = new double[capacity];
+    thetas = new double[capacity];
+  }
+
+  /**
+   * Adds a sample. Samples must be added in increasing timestamp order; out of order samples are
+   * ignored.
+   *
+   * @param timestampSecs Time of the sample in seconds
+   * @param x X position in meters
+   * @param y Y position in meters
+   * @param thetaRad Heading in radians
+   */
+  public void addSample(double timestampSecs, double x, double y, double thetaRad) {
+    if (size > 0 && timestampSecs <= timestamps[index(size - 1)]) {
+      return;
+    }
+
+    // Drop samples that have aged out of the history
+    while (size > 0 && timestamps[head] < timestampSecs - historySecs) {
+      head = (head + 1) % timestamps.length;
+      size--;
+    }
+
+    // Overwrite the oldest sample when full
+    if (size == timestamps.length) {
+      head = (head + 1) % timestamps.length;
+      size--;
+    }
+
+    int i = index(size);
+    timestamps[i] = timestampSecs;
+    xs[i] = x;
+    ys[i] = y;
+    thetas[i] = thetaRad;
+    size++;
+  }
+
+  /** Removes all samples. */
+  public void clear() {
+    head = 0;
+    size = 0;
+  }
+
+  /**
+   * Returns the pose at the given time, interpolated between the nearest samples. Times newer than
+   * the latest sample are clamped to it.
+   *
+   * @param timestampSecs Time to sample in seconds
+   * @return The interpolated pose, or empty if the time is older than the stored history
+   */
+  public Optional<Pose2d> getSample(double timestampSecs) {
+    if (size == 0 || timestampSecs < timestamps[head]) {
+      return Optional.empty();
+    }
+    int newest = index(size - 1);
+    if (timestampSecs >= timestamps[newest]) {
+      return Optional.of(pose(newest));
+    }
+
+    // Binary search for the last sample at or before the timestamp
+    int low = 0;
+    int high = size - 1;
+    while (high - low > 1) {
+      int mid = (low + high) >>> 1;
+      if (timestamps[index(mid)] <= timestampSecs) {
+        low = mid;
+      } else {
+        high = mid;
+      }
+    }
+
+    int before = index(low);
+    int after = index(high);
+    double t = (timestampSecs - timestamps[before]) / (timestamps[after] - timestamps[before]);
+    double dtheta = MathUtil.angleModulus(thetas[after] - thetas[before]);
+    return Optional.of(
+        new Pose2d(
+            MathUtil.interpolate(xs[before], xs[after], t),
+            MathUtil.interpolate(ys[before], ys[after], t),
+            new Rotation2d(thetas[before] + dtheta * t)));
+  }
+
+  /** Returns the number of samples currently held. */
+  public int size() {
+    return size;
+  }
+
+  private int index(int offset) {
+    return (head + offset) % timestamps.length;
+  }
+
+  private Pose2d pose(int i) {
+    return new Pose2d(xs[i], ys[i], new Rotation2d(thetas[i]));
+  }
+}
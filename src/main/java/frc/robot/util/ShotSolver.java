@@ -0,0 +1,148 @@
+package frc.robot.util;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Twist2d;
+import frc.robot.Constants.ShooterConstants;
+import frc.robot.FieldConstants;
+
+/**
+ * Finds the arm angle and flywheel speed for a shot at a target, including while driving.
+ *
+ * <p>The note keeps the robot's field velocity after it leaves the shooter, so the solver aims at
+ * a virtual target offset by that velocity times the note's time of flight. The time of flight
+ * depends on the distance to the virtual target, so the distance is iterated until the lead for it
+ * lands at that same distance. Angle, speed and time of flight all come from interpolating tables
+ * against distance, so each update is a handful of table lookups.
+ */
+public class ShotSolver {
+  private static final int kMaxIterations = 8;
+  private static final double kConvergedMeters = 0.005;
+
+  private final InterpolatingTable armAngleTable;
+  private final InterpolatingTable flywheelTable;
+  private final InterpolatingTable timeOfFlightTable;
+
+  private double robotX;
+  private double robotY;
+  private double targetX;
+  private double targetY;
+  private double velocityX;
+  private double velocityY;
+  private double distanceMeters;
+  private double virtualTargetX;
+  private double virtualTargetY;
+  private double armAngleDeg;
+  private double flywheelRPM;
+
+  /** Creates a solver from the shot tables in {@link ShooterConstants}. */
+  public ShotSolver() {
+    this(
+        new InterpolatingTable(
+            ShooterConstants.kShotDistancesMeters, ShooterConstants.kShotAnglesDeg),
+        new InterpolatingTable(ShooterConstants.kShotDistancesMeters, ShooterConstants.kShotRPMs),
+        new InterpolatingTable(
+            ShooterConstants.kShotDistancesMeters, ShooterConstants.kShotTimesOfFlightSecs));
+  }
+
+  /**
+   * @param armAngleTable Arm angle in degrees against distance in meters
+   * @param flywheelTable Flywheel speed in RPM against distance in meters
+   * @param timeOfFlightTable Time from leaving the shooter to reaching the target in seconds
+   *     against distance in meters
+   */
+  public ShotSolver(
+      InterpolatingTable armAngleTable,
+      InterpolatingTable flywheelTable,
+      InterpolatingTable timeOfFlightTable) {
+    this.armAngleTable = armAngleTable;
+    this.flywheelTable = flywheelTable;
+    this.timeOfFlightTable = timeOfFlightTable;
+  }
+
+  /**
+   * Solves a shot from the current robot state. Read the results with the getters.
+   *
+   * @param robotPose Current robot pose
+   * @param fieldVelocity Field relative robot velocity, only dx and dy are used
+   * @param targetX Field x coordinate of the target in meters
+   * @param targetY Field y coordinate of the target in meters
+   */
+  public void update(Pose2d robotPose, Twist2d fieldVelocity, double targetX, double targetY) {
+    robotX = robotPose.getX();
+    robotY = robotPose.getY();
+    this.targetX = targetX;
+    this.targetY = targetY;
+    velocityX = fieldVelocity.dx;
+    velocityY = fieldVelocity.dy;
+
+    // Secant method on the lead error, which converges in a few steps even when driving fast
+    // toward or away from the target where plain fixed point iteration is slow
+    double lastDistance = Math.hypot(targetX - robotX, targetY - robotY);
+    double lastError = leadDistance(lastDistance) - lastDistance;
+    distanceMeters = lastDistance + lastError;
+    for (int i = 0; i < kMaxIterations; i++) {
+      double error = leadDistance(distanceMeters) - distanceMeters;
+      if (Math.abs(error) < kConvergedMeters || error == lastError) {
+        break;
+      }
+      double nextDistance =
+          distanceMeters - error * (distanceMeters - lastDistance) / (error - lastError);
+      lastDistance = distanceMeters;
+      lastError = error;
+      distanceMeters = Math.max(nextDistance, 0.0);
+    }
+    leadDistance(distanceMeters);
+
+    armAngleDeg = armAngleTable.get(distanceMeters);
+    flywheelRPM = flywheelTable.get(distanceMeters);
+  }
+
+  /**
+   * Solves a shot at the center of the speaker opening on the current alliance. Solving again with
+   * the same robot state gives the same results, so every aiming command can call this itself.
+   *
+   * @param robotPose Current robot pose
+   * @param fieldVelocity Field relative robot velocity, only dx and dy are used
+   */
+  public void updateSpeaker(Pose2d robotPose, Twist2d fieldVelocity) {
+    update(
+        robotPose,
+        fieldVelocity,
+        AllianceFlipUtil.apply(FieldConstants.Speaker.centerSpeakerOpening.getX()),
+        FieldConstants.Speaker.centerSpeakerOpening.getY());
+  }
+
+  /**
+   * Moves the virtual target by the velocity times the time of flight for a shot at the given
+   * distance, and returns the distance to it.
+   */
+  private double leadDistance(double distance) {
+    double timeOfFlight = timeOfFlightTable.get(distance);
+    virtualTargetX = targetX - velocityX * timeOfFlight;
+    virtualTargetY = targetY - velocityY * timeOfFlight;
+    return Math.hypot(virtualTargetX - robotX, virtualTargetY - robotY);
+  }
+
+  /** Returns the distance to the virtual target in meters. */
+  public double getDistanceMeters() {
+    return distanceMeters;
+  }
+
+  /** Returns the field x coordinate to aim the robot at, including the lead for its velocity. */
+  public double getVirtualTargetX() {
+    return virtualTargetX;
+  }
+
+  /** Returns the field y coordinate to aim the robot at, including the lead for its velocity. */
+  public double getVirtualTargetY() {
+    return virtualTargetY;
+  }
+
+  public double getArmAngleDeg() {
+    return armAngleDeg;
+  }
+
+  public double getFlywheelRPM() {
+    return flywheelRPM;
+  }
+}
@@ -0,0 +1,308 @@
+package frc.robot.util;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import java.util.List;
+
+/**
+ * Time-parameterized path through a list of waypoints, made of quintic Hermite spline segments.
+ *
+ * <p>Each segment starts and ends with the heading of its waypoints and zero second derivative, so
+ * the path and its curvature are continuous across waypoints. Segments are sampled into a table of
+ * points at roughly even arc length. The speed at each point is limited by the max velocity and the
+ * centripetal acceleration allowed by the curvature there, then a forward and a backward pass limit
+ * the acceleration along the path, starting from the given speed and ending stopped. Sampling the
+ * trajectory by time is a binary search on the table followed by a linear interpolation.
+ */
+public class SplineTrajectory {
+  private static final double SAMPLE_SPACING_METERS = 0.02;
+  private static final int MIN_SAMPLES_PER_SEGMENT = 20;
+  private static final double TANGENT_SCALE = 1.2; // Tangent length relative to the chord
+
+  /** Limits used to profile a trajectory. */
+  public static final class Constraints {
+    public final double maxVelocity;
+    public final double maxAcceleration;
+    public final double maxCentripetalAcceleration;
+
+    /**
+     * @param maxVelocity Max speed in meters/sec
+     * @param maxAcceleration Max acceleration along the path in meters/sec^2
+     * @param maxCentripetalAcceleration Max acceleration toward the center of a turn in
+     *     meters/sec^2
+     */
+    public Constraints(
+        double maxVelocity, double maxAcceleration, double maxCentripetalAcceleration) {
+      this.maxVelocity = maxVelocity;
+      this.maxAcceleration = maxAcceleration;
+      this.maxCentripetalAcceleration = maxCentripetalAcceleration;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof Constraints
+          && ((Constraints) other).maxVelocity == maxVelocity
+          && ((Constraints) other).maxAcceleration == maxAcceleration
+          && ((Constraints) other).maxCentripetalAcceleration == maxCentripetalAcceleration;
+    }
+
+    @Override
+    public int hashCode() {
+      return Double.hashCode(maxVelocity)
+          + 31 * Double.hashCode(maxAcceleration)
+          + 961 * Double.hashCode(maxCentripetalAcceleration);
+    }
+  }
+
+  /** A sampled state of the trajectory. Reused by the caller to avoid allocating every loop. */
+  public static final class State {
+    public double x;
+    public double y;
+    public double vx;
+    public double vy;
+  }
+
+  private final int size;
+  private final double[] times;
+  private final double[] distances;
+  private final double[] xs;
+  private final double[] ys;
+  private final double[] tangentXs; // Unit tangent
+  private final double[] tangentYs;
+  private final double[] velocities;
+
+  private SplineTrajectory(
+      int size,
+      double[] times,
+      double[] distances,
+      double[] xs,
+      double[] ys,
+      double[] tangentXs,
+      double[] tangentYs,
+      double[] velocities) {
+    this.size = size;
+    this.times = times;
+    this.distances = distances;
+    this.xs = xs;
+    this.ys = ys;
+    this.tangentXs = tangentXs;
+    this.tangentYs = tangentYs;
+    this.velocities = velocities;
+  }
+
+  /**
+   * Generates a trajectory.
+   *
+   * @param waypoints Points to pass through, where the rotation of each is the direction of travel
+   *     through it (not the robot heading)
+   * @param startVelocity Speed along the path at the first waypoint in meters/sec, the trajectory
+   *     always ends stopped
+   * @param constraints Limits to profile the trajectory with
+   */
+  public static SplineTrajectory generate(
+      List<Pose2d> waypoints, double startVelocity, Constraints constraints) {
+    // Sample count per segment, from the chord length
+    int segments = waypoints.size() - 1;
+    int[] segmentSamples = new int[segments];
+    int size = 1;
+    for (int i = 0; i < segments; i++) {
+      double chord =
+          waypoints.get(i).getTranslation().getDistance(waypoints.get(i + 1).getTranslation());
+      segmentSamples[i] =
+          Math.max(MIN_SAMPLES_PER_SEGMENT, (int) Math.ceil(chord / SAMPLE_SPACING_METERS));
+      size += segmentSamples[i];
+    }
+
+    double[] times = new double[size];
+    double[] distances = new double[size];
+    double[] xs = new double[size];
+    double[] ys = new double[size];
+    double[] tangentXs = new double[size];
+    double[] tangentYs = new double[size];
+    double[] velocities = new double[size];
+    double[] curvatures = new double[size];
+
+    // Sample the segments. Each segment's last point is the next one's first.
+    int index = 0;
+    for (int i = 0; i < segments; i++) {
+      Pose2d start = waypoints.get(i);
+      Pose2d end = waypoints.get(i + 1);
+      double tangentLength =
+          TANGENT_SCALE * start.getTranslation().getDistance(end.getTranslation());
+      double[] cx =
+          coefficients(
+              start.getX(),
+              start.getRotation().getCos() * tangentLength,
+              end.getX(),
+              end.getRotation().getCos() * tangentLength);
+      double[] cy =
+          coefficients(
+              start.getY(),
+              start.getRotation().getSin() * tangentLength,
+              end.getY(),
+              end.getRotation().getSin() * tangentLength);
+
+      int first = i == 0 ? 0 : 1;
+      for (int j = first; j <= segmentSamples[i]; j++) {
+        double t = (double) j / segmentSamples[i];
+        double dx = derivative(cx, t);
+        double dy = derivative(cy, t);
+        double ddx = secondDerivative(cx, t);
+        double ddy = secondDerivative(cy, t);
+        double speed = Math.sqrt(dx * dx + dy * dy);
+
+        xs[index] = evaluate(cx, t);
+        ys[index] = evaluate(cy, t);
+        if (speed > 1e-9) {
+          tangentXs[index] = dx / speed;
+          tangentYs[index] = dy / speed;
+          curvatures[index] = (dx * ddy - dy * ddx) / (speed * speed * speed);
+        } else {
+          // Zero length segment, travel along the waypoint's heading
+          tangentXs[index] = start.getRotation().getCos();
+          tangentYs[index] = start.getRotation().getSin();
+        }
+        if (index > 0) {
+          distances[index] =
+              distances[index - 1]
+                  + Math.hypot(xs[index] - xs[index - 1], ys[index] - ys[index - 1]);
+        }
+        index++;
+      }
+    }
+
+    // Speed limit from the max velocity and the curvature
+    for (int i = 0; i < size; i++) {
+      double curvature = Math.abs(curvatures[i]);
+      velocities[i] =
+          curvature > 1e-6
+              ? Math.min(
+                  constraints.maxVelocity,
+                  Math.sqrt(constraints.maxCentripetalAcceleration / curvature))
+              : constraints.maxVelocity;
+    }
+
+    // Acceleration limits, v^2 = v0^2 + 2 * a * ds
+    velocities[0] = Math.min(velocities[0], Math.max(startVelocity, 0.0));
+    for (int i = 1; i < size; i++) {
+      double ds = distances[i] - distances[i - 1];
+      velocities[i] =
+          Math.min(
+              velocities[i],
+              Math.sqrt(
+                  velocities[i - 1] * velocities[i - 1] + 2.0 * constraints.maxAcceleration * ds));
+    }
+    velocities[size - 1] = 0.0;
+    for (int i = size - 2; i >= 0; i--) {
+      double ds = distances[i + 1] - distances[i];
+      velocities[i] =
+          Math.min(
+              velocities[i],
+              Math.sqrt(
+                  velocities[i + 1] * velocities[i + 1] + 2.0 * constraints.maxAcceleration * ds));
+    }
+
+    // Time to cover each step at constant acceleration
+    for (int i = 1; i < size; i++) {
+      double ds = distances[i] - distances[i - 1];
+      double averageVelocity = 0.5 * (velocities[i - 1] + velocities[i]);
+      times[i] = times[i - 1] + (averageVelocity > 1e-9 ? ds / averageVelocity : 0.0);
+    }
+
+    return new SplineTrajectory(
+        size, times, distances, xs, ys, tangentXs, tangentYs, velocities);
+  }
+
+  /** Returns the polynomial coefficients of one axis of a quintic Hermite segment. */
+  private static double[] coefficients(double p0, double v0, double p1, double v1) {
+    // Both second derivatives are zero
+    return new double[] {
+      p0,
+      v0,
+      0.0,
+      -10.0 * p0 - 6.0 * v0 - 4.0 * v1 + 10.0 * p1,
+      15.0 * p0 + 8.0 * v0 + 7.0 * v1 - 15.0 * p1,
+      -6.0 * p0 - 3.0 * v0 - 3.0 * v1 + 6.0 * p1
+    };
+  }
+
+  private static double evaluate(double[] c, double t) {
+    return c[0] + t * (c[1] + t * (c[2] + t * (c[3] + t * (c[4] + t * c[5]))));
+  }
+
+  private static double derivative(double[] c, double t) {
+    return c[1] + t * (2.0 * c[2] + t * (3.0 * c[3] + t * (4.0 * c[4] + t * 5.0 * c[5])));
+  }
+
+  private static double secondDerivative(double[] c, double t) {
+    return 2.0 * c[2] + t * (6.0 * c[3] + t * (12.0 * c[4] + t * 20.0 * c[5]));
+  }
+
+  /** Returns the time to drive the whole trajectory, in seconds. */
+  public double getTotalTimeSeconds() {
+    return times[size - 1];
+  }
+
+  /** Returns the length of the trajectory, in meters. */
+  public double getLengthMeters() {
+    return distances[size - 1];
+  }
+
+  /**
+   * Samples the trajectory. Times before the start or after the end return the first or last
+   * state.
+   *
+   * @param timeSeconds Time since the start of the trajectory
+   * @param out State to write the sample to
+   */
+  public void sample(double timeSeconds, State out) {
+    if (timeSeconds <= 0.0 || size == 1) {
+      write(0, 0, 0.0, out);
+      return;
+    }
+    if (timeSeconds >= times[size - 1]) {
+      write(size - 1, size - 1, 0.0, out);
+      return;
+    }
+
+    // Last point at or before the time
+    int low = 0;
+    int high = size - 1;
+    while (high - low > 1) {
+      int mid = (low + high) >>> 1;
+      if (times[mid] <= timeSeconds) {
+        low = mid;
+      } else {
+        high = mid;
+      }
+    }
+    double span = times[high] - times[low];
+    write(low, high, span > 0.0 ? (timeSeconds - times[low]) / span : 0.0, out);
+  }
+
+  private void write(int from, int to, double fraction, State out) {
+    out.x = xs[from] + (xs[to] - xs[from]) * fraction;
+    out.y = ys[from] + (ys[to] - ys[from]) * fraction;
+    double velocity = velocities[from] + (velocities[to] - velocities[from]) * fraction;
+    double tangentX = tangentXs[from] + (tangentXs[to] - tangentXs[from]) * fraction;
+    double tangentY = tangentYs[from] + (tangentYs[to] - tangentYs[from]) * fraction;
+    double norm = Math.hypot(tangentX, tangentY);
+    out.vx = norm > 1e-9 ? velocity * tangentX / norm : 0.0;
+    out.vy = norm > 1e-9 ? velocity * tangentY / norm : 0.0;
+  }
+
+  /** Returns the sampled points for logging, at most about every maxSpacing meters. */
+  public Pose2d[] getPoses(double maxSpacing) {
+    int step = Math.max(1, (int) (maxSpacing / SAMPLE_SPACING_METERS));
+    Pose2d[] poses = new Pose2d[(size - 1) / step + 2];
+    for (int i = 0; i < poses.length; i++) {
+      int sampleIndex = Math.min(i * step, size - 1);
+      poses[i] =
+          new Pose2d(
+              xs[sampleIndex],
+              ys[sampleIndex],
+              new Rotation2d(tangentXs[sampleIndex], tangentYs[sampleIndex]));
+    }
+    return poses;
+  }
+}
@@ -0,0 +1,47 @@
+package frc.robot.util;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.hardware.ParentDevice;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Holds the Phoenix status signals read by the IO classes so they can all be refreshed in one
+ * batched call per CAN bus at the start of each loop, instead of one call per IO class. IO classes
+ * register their signals when constructed and only read the cached values in updateInputs.
+ */
+public final class StatusSignalRegistry {
+  private static final List<String> networks = new ArrayList<>();
+  private static final List<BaseStatusSignal[]> signals = new ArrayList<>();
+
+  private StatusSignalRegistry() {}
+
+  /**
+   * Registers signals to be refreshed every loop.
+   *
+   * @param device The device the signals belong to, used to group signals by CAN bus
+   * @param newSignals The signals to refresh
+   */
+  public static synchronized void register(ParentDevice device, BaseStatusSignal... newSignals) {
+    // refreshAll can only batch signals on the same bus
+    int index = networks.indexOf(device.getNetwork());
+    if (index == -1) {
+      networks.add(device.getNetwork());
+      signals.add(newSignals);
+      return;
+    }
+
+    BaseStatusSignal[] oldSignals = signals.get(index);
+    BaseStatusSignal[] combined = new BaseStatusSignal[oldSignals.length + newSignals.length];
+    System.arraycopy(oldSignals, 0, combined, 0, oldSignals.length);
+    System.arraycopy(newSignals, 0, combined, oldSignals.length, newSignals.length);
+    signals.set(index, combined);
+  }
+
+  /** Refreshes every registered signal. Should be called once at the start of each loop. */
+  public static synchronized void refreshAll() {
+    for (int i = 0; i < signals.size(); i++) {
+      BaseStatusSignal.refreshAll(signals.get(i));
+    }
+  }
+}
@@ -0,0 +1,147 @@
+package frc.robot.util;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.wpilibj.DriverStation;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Cache of spline trajectories that start from rest, filled ahead of time on a small worker pool.
+ *
+ * <p>Autos register the trajectories they expect to drive with {@link #precompute}, which
+ * generates them in the background while the robot is disabled. A command starting from rest then
+ * calls {@link #get}. If the robot is within {@link #kStartToleranceMeters} of a registered start,
+ * the trajectory always starts from that registered start, so the first loop of the command does
+ * not have to generate it. Entries are keyed by the goal pose and the constraints, and both
+ * alliances are just different goal or start poses.
+ *
+ * <p>Starts are registered on the caller's thread, and only the generation is left to the worker.
+ * If the worker has not finished, the caller generates the same trajectory from the registered
+ * start itself, so the trajectory followed never depends on worker timing and replay matches.
+ */
+public final class TrajectoryCache {
+  private static final int kThreadCount = 2;
+  private static final double kStartToleranceMeters = 0.05;
+
+  private static final Map<Key, List<Entry>> trajectories = new ConcurrentHashMap<>();
+  private static ExecutorService executor = null;
+
+  private TrajectoryCache() {}
+
+  /**
+   * Registers a start and generates its trajectory in the background. The generation is skipped if
+   * the robot is already enabled by the time a worker gets to it, since the command will generate
+   * the same trajectory itself. A start within the tolerance of one already registered for the
+   * same goal is ignored, since the earlier one would always be used.
+   *
+   * @param start Position the robot is expected to start from, at rest
+   * @param goal Final pose, where the rotation is the direction of travel at the end
+   * @param constraints Limits to profile the trajectory with
+   */
+  public static synchronized void precompute(
+      Translation2d start, Pose2d goal, SplineTrajectory.Constraints constraints) {
+    if (executor == null) {
+      executor =
+          Executors.newFixedThreadPool(
+              kThreadCount,
+              runnable -> {
+                Thread thread = new Thread(runnable, "TrajectoryCache");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+              });
+    }
+    Key key = new Key(goal, constraints);
+    if (find(key, start) != null) {
+      return;
+    }
+    Entry entry = new Entry(start);
+    trajectories.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>()).add(entry);
+    executor.execute(
+        () -> {
+          if (!DriverStation.isEnabled()) {
+            entry.trajectory = generateFromRest(start, goal, constraints);
+          }
+        });
+  }
+
+  /**
+   * Returns the trajectory from rest to the goal. If a start was registered close enough to the
+   * given start, the trajectory starts from the registered start and comes from the cache when the
+   * worker has finished it. Otherwise it starts from the given start and is generated now.
+   */
+  public static SplineTrajectory get(
+      Translation2d start, Pose2d goal, SplineTrajectory.Constraints constraints) {
+    Entry entry = find(new Key(goal, constraints), start);
+    if (entry == null) {
+      return generateFromRest(start, goal, constraints);
+    }
+    SplineTrajectory trajectory = entry.trajectory;
+    if (trajectory == null) {
+      // Same trajectory the worker would have stored
+      trajectory = generateFromRest(entry.start, goal, constraints);
+      entry.trajectory = trajectory;
+    }
+    return trajectory;
+  }
+
+  /** Returns the first entry registered within the tolerance of a start, or null if none. */
+  private static Entry find(Key key, Translation2d start) {
+    List<Entry> entries = trajectories.get(key);
+    if (entries == null) {
+      return null;
+    }
+    for (Entry entry : entries) {
+      if (entry.start.getDistance(start) < kStartToleranceMeters) {
+        return entry;
+      }
+    }
+    return null;
+  }
+
+  /** Generates a trajectory that leaves the start straight toward the goal. */
+  private static SplineTrajectory generateFromRest(
+      Translation2d start, Pose2d goal, SplineTrajectory.Constraints constraints) {
+    return SplineTrajectory.generate(
+        List.of(new Pose2d(start, goal.getTranslation().minus(start).getAngle()), goal),
+        0.0,
+        constraints);
+  }
+
+  private static final class Key {
+    private final Pose2d goal;
+    private final SplineTrajectory.Constraints constraints;
+
+    private Key(Pose2d goal, SplineTrajectory.Constraints constraints) {
+      this.goal = goal;
+      this.constraints = constraints;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof Key
+          && ((Key) other).goal.equals(goal)
+          && ((Key) other).constraints.equals(constraints);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(goal, constraints);
+    }
+  }
+
+  private static final class Entry {
+    private final Translation2d start;
+    private volatile SplineTrajectory trajectory = null; // Null until generated
+
+    private Entry(Translation2d start) {
+      this.start = start;
+    }
+  }
+}
@@ -0,0 +1,114 @@
+package frc.robot.subsystems.drive;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that steady-state drive loops allocate close to nothing. The sim IO creates new input
+ * arrays every read, so only the loops after the inputs are read are measured. Needs a HotSpot JVM
+ * to count allocated bytes per thread, and is skipped on JVMs that can't.
+ */
+class DriveAllocationTest {
+  // Enough loops for C2 to compile the loop methods, so the measurement matches a robot that has
+  // been running for a while
+  private static final int kWarmupLoops = 20000;
+  private static final int kMeasuredLoops = 501;
+
+  // The measured module angle is a new Rotation2d each loop since the IO reports a new one
+  private static final double kModuleBudgetBytes = 64.0;
+  // The four module angles plus the new fused and odometry-only poses
+  private static final double kDriveBudgetBytes = 512.0;
+
+  private static com.sun.management.ThreadMXBean threadBean;
+
+  @BeforeAll
+  static void setup() {
+    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    assumeTrue(
+        bean instanceof com.sun.management.ThreadMXBean
+            && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported(),
+        "JVM can't measure allocated bytes per thread");
+    threadBean = (com.sun.management.ThreadMXBean) bean;
+    threadBean.setThreadAllocatedMemoryEnabled(true);
+
+    assertTrue(HAL.initialize(500, 0));
+    DriverStationSim.setDsAttached(true);
+    DriverStationSim.setEnabled(true);
+    DriverStationSim.notifyNewData();
+    DriverStation.refreshData();
+  }
+
+  @Test
+  void moduleLoopAllocatesOnlyTheMeasuredAngle() {
+    Module module = new Module(new ModuleIOSim(), 0);
+    SwerveModuleState setpoint = new SwerveModuleState(2.0, Rotation2d.fromDegrees(135.0));
+    measureBytesPerLoop(module::updateInputs, () -> runModule(module, setpoint));
+
+    // Ask for the opposite of where the module settled, so the optimized setpoint is flipped
+    SwerveModuleState flippedSetpoint =
+        new SwerveModuleState(2.0, module.getAngle().rotateBy(Rotation2d.fromDegrees(180.0)));
+    double bytesPerLoop =
+        measureBytesPerLoop(module::updateInputs, () -> runModule(module, flippedSetpoint));
+    assertTrue(
+        bytesPerLoop <= kModuleBudgetBytes,
+        "Module loop allocated " + bytesPerLoop + " bytes per loop");
+  }
+
+  @Test
+  void driveLoopAllocatesOnlyTheNewPoses() {
+    Drive drive =
+        new Drive(
+            new GyroIO() {},
+            new ModuleIOSim(),
+            new ModuleIOSim(),
+            new ModuleIOSim(),
+            new ModuleIOSim());
+    drive.runVelocity(new ChassisSpeeds(1.0, 0.5, 0.0));
+    double bytesPerLoop = measureBytesPerLoop(drive::updateInputs, drive::periodic);
+    assertTrue(
+        bytesPerLoop <= kDriveBudgetBytes,
+        "Drive loop allocated " + bytesPerLoop + " bytes per loop");
+  }
+
+  private static void runModule(Module module, SwerveModuleState setpoint) {
+    module.periodic();
+    module.runSetpoint(setpoint);
+    module.getPosition();
+    module.getPositionDelta();
+    module.getState();
+  }
+
+  /**
+   * Runs the loop until it is steady, then returns the median bytes it allocates per loop, so a
+   * loop that happens to run during a recompile does not count. The inputs are read before each
+   * loop and are not counted.
+   */
+  private static double measureBytesPerLoop(Runnable readInputs, Runnable loop) {
+    for (int i = 0; i < kWarmupLoops; i++) {
+      readInputs.run();
+      loop.run();
+    }
+    long threadId = Thread.currentThread().getId();
+    long[] bytes = new long[kMeasuredLoops];
+    for (int i = 0; i < kMeasuredLoops; i++) {
+      readInputs.run();
+      long startBytes = threadBean.getThreadAllocatedBytes(threadId);
+      loop.run();
+      bytes[i] = threadBean.getThreadAllocatedBytes(threadId) - startBytes;
+    }
+    Arrays.sort(bytes);
+    return bytes[kMeasuredLoops / 2];
+  }
+}
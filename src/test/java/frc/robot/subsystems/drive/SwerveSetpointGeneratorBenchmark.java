@@ -0,0 +1,48 @@
+package frc.robot.subsystems.drive;
+
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import java.util.Random;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Reports how long SwerveSetpointGenerator.generate() takes for random requests. Only runs with
+ * ./gradlew benchmark, and reports the number without asserting on it.
+ */
+@Tag("benchmark")
+class SwerveSetpointGeneratorBenchmark {
+  private static final int kWarmupCalls = 20000;
+  private static final int kMeasuredCalls = 100000;
+
+  @Test
+  void generateTime() {
+    SwerveSetpointGenerator generator =
+        new SwerveSetpointGenerator(
+            new double[] {0.3, 0.3, -0.3, -0.3},
+            new double[] {0.3, -0.3, 0.3, -0.3},
+            8.0,
+            4.0 * Math.PI);
+    SwerveModuleState[] states = new SwerveModuleState[4];
+    for (int i = 0; i < states.length; i++) {
+      states[i] = new SwerveModuleState();
+    }
+    Random random = new Random(5);
+    double[][] requests = new double[1000][];
+    for (int i = 0; i < requests.length; i++) {
+      requests[i] = SwerveSetpointGeneratorTest.randomRequest(random);
+    }
+
+    for (int i = 0; i < kWarmupCalls; i++) {
+      double[] request = requests[i % requests.length];
+      generator.generate(request[0], request[1], request[2], 0.02, states);
+    }
+    long startNanos = System.nanoTime();
+    for (int i = 0; i < kMeasuredCalls; i++) {
+      double[] request = requests[i % requests.length];
+      generator.generate(request[0], request[1], request[2], 0.02, states);
+    }
+    System.out.printf(
+        "SwerveSetpointGenerator.generate() %.4f ms on average%n",
+        (System.nanoTime() - startNanos) / 1E6 / kMeasuredCalls);
+  }
+}
@@ -0,0 +1,125 @@
+package frc.robot.subsystems.drive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SwerveSetpointGeneratorTest {
+  private static final double kDt = 0.02;
+  private static final double kMaxSpeed = 4.8;
+  private static final double kMaxAcceleration = 8.0;
+  private static final double kMaxAzimuthVelocity = 4.0 * Math.PI;
+  private static final double kTolerance = 1E-9;
+  private static final double[] kModuleX = new double[] {0.3, 0.3, -0.3, -0.3};
+  private static final double[] kModuleY = new double[] {0.3, -0.3, 0.3, -0.3};
+
+  private SwerveSetpointGenerator generator;
+  private SwerveModuleState[] states;
+  private double[] prevModuleVx;
+  private double[] prevModuleVy;
+  private double[] prevHeadingsRad;
+
+  @BeforeEach
+  void setup() {
+    generator =
+        new SwerveSetpointGenerator(kModuleX, kModuleY, kMaxAcceleration, kMaxAzimuthVelocity);
+    states = new SwerveModuleState[kModuleX.length];
+    prevModuleVx = new double[kModuleX.length];
+    prevModuleVy = new double[kModuleX.length];
+    prevHeadingsRad = new double[kModuleX.length];
+    for (int i = 0; i < states.length; i++) {
+      states[i] = new SwerveModuleState();
+    }
+  }
+
+  @Test
+  void limitsHoldForRandomRequests() {
+    Random random = new Random(7);
+    double[] request = null;
+    for (int i = 0; i < 20000; i++) {
+      // Hold each request for a while so the setpoint both ramps and settles
+      if (i % 25 == 0) {
+        request = randomRequest(random);
+      }
+      generateAndCheck(request[0], request[1], request[2]);
+    }
+  }
+
+  @Test
+  void stoppedModulesSteerBeforeDriving() {
+    // Modules start stopped at 0 rad, request driving straight left at pi/2
+    double maxHeadingStep = kMaxAzimuthVelocity * kDt;
+    int steps = 0;
+    while (states[0].speedMetersPerSecond == 0.0) {
+      generateAndCheck(0.0, 2.0, 0.0);
+      steps++;
+      for (SwerveModuleState state : states) {
+        if (state.speedMetersPerSecond > 0.0) {
+          // Only drives once the wheel points where it is going
+          assertEquals(Math.PI / 2.0, state.angle.getRadians(), kTolerance);
+        } else {
+          assertEquals(
+              Math.min(steps * maxHeadingStep, Math.PI / 2.0),
+              state.angle.getRadians(),
+              kTolerance);
+        }
+      }
+      assertTrue(steps < 20, "Modules never started driving");
+    }
+    assertEquals((int) Math.ceil(Math.PI / 2.0 / maxHeadingStep), steps);
+
+    // Then accelerates at the limit up to the requested speed
+    for (int i = 0; i < 50; i++) {
+      generateAndCheck(0.0, 2.0, 0.0);
+    }
+    for (SwerveModuleState state : states) {
+      assertEquals(2.0, state.speedMetersPerSecond, kTolerance);
+    }
+  }
+
+  /** Returns random chassis speeds {vx, vy, omega}, stopped one time in ten. */
+  static double[] randomRequest(Random random) {
+    if (random.nextInt(10) == 0) {
+      return new double[] {0.0, 0.0, 0.0};
+    }
+    return new double[] {
+      (random.nextDouble() * 2.0 - 1.0) * kMaxSpeed,
+      (random.nextDouble() * 2.0 - 1.0) * kMaxSpeed,
+      (random.nextDouble() * 2.0 - 1.0) * 2.0 * Math.PI
+    };
+  }
+
+  /**
+   * Generates a setpoint and checks that no module accelerates or turns faster than the limits. A
+   * module may reverse its drive direction instead of turning.
+   */
+  private void generateAndCheck(double vx, double vy, double omega) {
+    generator.generate(vx, vy, omega, kDt, states);
+    for (int i = 0; i < states.length; i++) {
+      double speed = states[i].speedMetersPerSecond;
+      double headingRad = states[i].angle.getRadians();
+      double moduleVx = speed * Math.cos(headingRad);
+      double moduleVy = speed * Math.sin(headingRad);
+      double acceleration =
+          Math.hypot(moduleVx - prevModuleVx[i], moduleVy - prevModuleVy[i]) / kDt;
+      assertTrue(
+          acceleration <= kMaxAcceleration + kTolerance,
+          "Module " + i + " accelerated at " + acceleration + " m/s^2");
+
+      double headingDelta = Math.abs(MathUtil.angleModulus(headingRad - prevHeadingsRad[i]));
+      double azimuthVelocity = Math.min(headingDelta, Math.PI - headingDelta) / kDt;
+      assertTrue(
+          azimuthVelocity <= kMaxAzimuthVelocity + kTolerance,
+          "Module " + i + " turned at " + azimuthVelocity + " rad/s");
+
+      prevModuleVx[i] = moduleVx;
+      prevModuleVy[i] = moduleVy;
+      prevHeadingsRad[i] = headingRad;
+    }
+  }
+}
@@ -0,0 +1,91 @@
+package frc.robot.util;
+
+import com.pathplanner.lib.path.GoalEndState;
+import com.pathplanner.lib.path.PathConstraints;
+import com.pathplanner.lib.path.PathPlannerPath;
+import com.pathplanner.lib.pathfinding.LocalADStar;
+import com.pathplanner.lib.pathfinding.Pathfinder;
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Reports how long GridPathfinder and LocalADStar take to plan on the deployed navgrid. Only runs
+ * with ./gradlew benchmark, and reports the numbers without asserting on them.
+ */
+@Tag("benchmark")
+class GridPathfinderBenchmark {
+  private static final int kPathCount = 100;
+  private static final double kTimeoutSecs = 2.0;
+  private static final PathConstraints kConstraints =
+      new PathConstraints(4.0, 4.0, 2.0 * Math.PI, 4.0 * Math.PI);
+  private static final GoalEndState kGoalEndState = new GoalEndState(0.0, new Rotation2d());
+
+  @Test
+  void timeToPath() {
+    HAL.initialize(500, 0);
+    NavGrid grid = NavGrid.fromDeploy();
+    GridPathfinder gridPathfinder = new GridPathfinder(grid, List.of());
+    LocalADStar localADStar = new LocalADStar();
+    Random random = new Random(16);
+    double[] gridMs = new double[kPathCount];
+    double[] localADStarMs = new double[kPathCount];
+    int count = 0;
+    while (count < kPathCount) {
+      int start = GridPathfinderTest.randomFreeNode(random, grid);
+      int goal = GridPathfinderTest.randomFreeNode(random, grid);
+      // Unreachable goals would only measure the timeout
+      if (new FlowField(grid, goal).getPath(start) == null) {
+        continue;
+      }
+      Translation2d startPosition = new Translation2d(grid.nodeX(start), grid.nodeY(start));
+      Translation2d goalPosition = new Translation2d(grid.nodeX(goal), grid.nodeY(goal));
+      double tolerance = grid.getNodeSizeMeters();
+      gridMs[count] = timeToPathMs(gridPathfinder, startPosition, goalPosition, tolerance);
+      localADStarMs[count] = timeToPathMs(localADStar, startPosition, goalPosition, tolerance);
+      count++;
+    }
+
+    Arrays.sort(gridMs);
+    Arrays.sort(localADStarMs);
+    System.out.printf(
+        "GridPathfinder p50 %.3f ms, p99 %.3f ms; LocalADStar p50 %.3f ms, p99 %.3f ms%n",
+        percentile(gridMs, 0.5),
+        percentile(gridMs, 0.99),
+        percentile(localADStarMs, 0.5),
+        percentile(localADStarMs, 0.99));
+  }
+
+  /**
+   * Returns the time from setting the start and goal until a path to the goal is available. Both
+   * pathfinders plan on their own thread, so both are timed the same way through the Pathfinder
+   * interface.
+   */
+  private static double timeToPathMs(
+      Pathfinder pathfinder, Translation2d start, Translation2d goal, double tolerance) {
+    long startNanos = System.nanoTime();
+    pathfinder.setStartPosition(start);
+    pathfinder.setGoalPosition(goal);
+    while (System.nanoTime() - startNanos < kTimeoutSecs * 1E9) {
+      if (pathfinder.isNewPathAvailable()) {
+        // The start and goal are set separately, skip a path planned between the two
+        PathPlannerPath path = pathfinder.getCurrentPath(kConstraints, kGoalEndState);
+        if (path != null
+            && path.getPoint(path.numPoints() - 1).position.getDistance(goal) < tolerance) {
+          break;
+        }
+      }
+      Thread.onSpinWait();
+    }
+    return (System.nanoTime() - startNanos) / 1E6;
+  }
+
+  private static double percentile(double[] sorted, double fraction) {
+    return sorted[(int) Math.min(sorted.length - 1, Math.floor(sorted.length * fraction))];
+  }
+}
@@ -0,0 +1,92 @@
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.pathplanner.lib.path.PathPoint;
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Translation2d;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/** Checks GridPathfinder and FlowField paths on the deployed navgrid. */
+class GridPathfinderTest {
+  private static final int kPathCount = 500;
+
+  private static NavGrid grid;
+
+  @BeforeAll
+  static void setup() {
+    assertTrue(HAL.initialize(500, 0));
+    grid = NavGrid.fromDeploy();
+    assertTrue(grid.getNodeCount() > 1, "navgrid.json did not load");
+  }
+
+  @Test
+  void thetaStarPathsAvoidObstacles() {
+    GridPathfinder pathfinder = new GridPathfinder(grid, List.of());
+    Random random = new Random(15);
+    for (int i = 0; i < kPathCount; i++) {
+      int start = randomFreeNode(random, grid);
+      int goal = randomFreeNode(random, grid);
+      List<PathPoint> points =
+          pathfinder.findPath(
+              grid.nodeX(start), grid.nodeY(start), grid.nodeX(goal), grid.nodeY(goal));
+
+      // Both search the same moves, so a path exists exactly when the flow field reaches the start
+      boolean reachable = new FlowField(grid, goal).getPath(start) != null;
+      assertEquals(
+          reachable,
+          !points.isEmpty(),
+          "Path from node " + start + " to " + goal + (reachable ? " not found" : " found"));
+      if (!reachable) {
+        continue;
+      }
+      assertEquals(grid.nodeX(start), points.get(0).position.getX(), 1E-9);
+      assertEquals(grid.nodeY(start), points.get(0).position.getY(), 1E-9);
+      assertEquals(grid.nodeX(goal), points.get(points.size() - 1).position.getX(), 1E-9);
+      assertEquals(grid.nodeY(goal), points.get(points.size() - 1).position.getY(), 1E-9);
+      for (PathPoint point : points) {
+        assertFalse(
+            grid.isBlocked(grid.nodeAt(point.position.getX(), point.position.getY())),
+            "Path from node " + start + " to " + goal + " passes through " + point.position);
+      }
+    }
+  }
+
+  @Test
+  void flowFieldPathsAvoidObstacles() {
+    for (Translation2d goalPosition : LocalADStarAK.getFlowFieldGoals()) {
+      int goal = grid.nearestFree(grid.nodeAt(goalPosition.getX(), goalPosition.getY()));
+      FlowField flowField = new FlowField(grid, goal);
+      for (int start = 0; start < grid.getNodeCount(); start++) {
+        if (grid.isBlocked(start)) {
+          continue;
+        }
+        int[] corners = flowField.getPath(start);
+        if (corners == null) {
+          continue;
+        }
+        assertEquals(start, corners[0]);
+        assertEquals(goal, corners[corners.length - 1]);
+        for (int i = 1; i < corners.length; i++) {
+          assertTrue(
+              grid.lineOfSight(corners[i - 1], corners[i]),
+              "Flow field path from node " + start + " to " + goal + " crosses an obstacle");
+        }
+      }
+    }
+  }
+
+  static int randomFreeNode(Random random, NavGrid navGrid) {
+    while (true) {
+      int node = random.nextInt(navGrid.getNodeCount());
+      if (!navGrid.isBlocked(node)) {
+        return node;
+      }
+    }
+  }
+}
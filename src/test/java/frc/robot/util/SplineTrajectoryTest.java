@@ -0,0 +1,114 @@
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class SplineTrajectoryTest {
+  private static final double kDt = 0.001;
+  private static final SplineTrajectory.Constraints kConstraints =
+      new SplineTrajectory.Constraints(3.0, 2.5, 2.0);
+  private static final List<Pose2d> kCurvedWaypoints =
+      List.of(
+          new Pose2d(1.0, 1.0, Rotation2d.fromDegrees(0.0)),
+          new Pose2d(3.0, 2.5, Rotation2d.fromDegrees(90.0)),
+          new Pose2d(1.5, 4.0, Rotation2d.fromDegrees(180.0)),
+          new Pose2d(4.0, 5.0, Rotation2d.fromDegrees(-30.0)));
+
+  @Test
+  void straightLineMatchesTrapezoidProfile() {
+    SplineTrajectory trajectory =
+        SplineTrajectory.generate(
+            List.of(new Pose2d(0.0, 0.0, new Rotation2d()), new Pose2d(6.0, 0.0, new Rotation2d())),
+            0.0,
+            kConstraints);
+
+    // Accelerates to 3 m/s over 1.8 m, cruises 2.4 m, then decelerates over 1.8 m
+    assertEquals(6.0, trajectory.getLengthMeters(), 1E-9);
+    assertEquals(1.2 + 0.8 + 1.2, trajectory.getTotalTimeSeconds(), 0.01);
+
+    SplineTrajectory.State state = new SplineTrajectory.State();
+    trajectory.sample(trajectory.getTotalTimeSeconds() / 2.0, state);
+    assertEquals(3.0, state.x, 0.01);
+    assertEquals(0.0, state.y, 1E-9);
+    assertEquals(3.0, state.vx, 1E-6);
+    assertEquals(0.0, state.vy, 1E-9);
+  }
+
+  @Test
+  void startsAtStartVelocityAndEndsStopped() {
+    SplineTrajectory trajectory = SplineTrajectory.generate(kCurvedWaypoints, 1.5, kConstraints);
+    SplineTrajectory.State state = new SplineTrajectory.State();
+
+    trajectory.sample(-1.0, state);
+    assertEquals(1.0, state.x, 1E-9);
+    assertEquals(1.0, state.y, 1E-9);
+    assertEquals(1.5, state.vx, 1E-9);
+    assertEquals(0.0, state.vy, 1E-9);
+
+    trajectory.sample(trajectory.getTotalTimeSeconds() + 1.0, state);
+    assertEquals(4.0, state.x, 1E-9);
+    assertEquals(5.0, state.y, 1E-9);
+    assertEquals(0.0, Math.hypot(state.vx, state.vy), 1E-9);
+  }
+
+  @Test
+  void passesThroughEveryWaypoint() {
+    SplineTrajectory trajectory = SplineTrajectory.generate(kCurvedWaypoints, 0.0, kConstraints);
+    SplineTrajectory.State state = new SplineTrajectory.State();
+    for (Pose2d waypoint : kCurvedWaypoints) {
+      double closest = Double.POSITIVE_INFINITY;
+      for (double t = 0.0; t <= trajectory.getTotalTimeSeconds(); t += kDt) {
+        trajectory.sample(t, state);
+        closest =
+            Math.min(closest, Math.hypot(state.x - waypoint.getX(), state.y - waypoint.getY()));
+      }
+      assertEquals(0.0, closest, 0.005, "Trajectory misses waypoint " + waypoint);
+    }
+  }
+
+  @Test
+  void sampledStatesRespectConstraints() {
+    SplineTrajectory trajectory = SplineTrajectory.generate(kCurvedWaypoints, 0.0, kConstraints);
+    SplineTrajectory.State state = new SplineTrajectory.State();
+    trajectory.sample(0.0, state);
+    double prevX = state.x;
+    double prevY = state.y;
+    double prevVx = state.vx;
+    double prevVy = state.vy;
+    double distance = 0.0;
+    double integratedX = state.x;
+    double integratedY = state.y;
+    // Both limits can apply at once, and the samples are interpolated from a table
+    double maxAcceleration =
+        1.05
+            * Math.hypot(kConstraints.maxAcceleration, kConstraints.maxCentripetalAcceleration);
+    for (double t = kDt; t <= trajectory.getTotalTimeSeconds(); t += kDt) {
+      trajectory.sample(t, state);
+      double speed = Math.hypot(state.vx, state.vy);
+      assertTrue(speed <= kConstraints.maxVelocity + 1E-9, "Speed " + speed + " at " + t + " s");
+      double acceleration = Math.hypot(state.vx - prevVx, state.vy - prevVy) / kDt;
+      assertTrue(
+          acceleration <= maxAcceleration,
+          "Acceleration " + acceleration + " m/s^2 at " + t + " s");
+
+      distance += Math.hypot(state.x - prevX, state.y - prevY);
+      integratedX += 0.5 * (state.vx + prevVx) * kDt;
+      integratedY += 0.5 * (state.vy + prevVy) * kDt;
+
+      prevX = state.x;
+      prevY = state.y;
+      prevVx = state.vx;
+      prevVy = state.vy;
+    }
+    assertEquals(trajectory.getLengthMeters(), distance, 0.01 * trajectory.getLengthMeters());
+
+    // Following the sampled velocities ends where the positions do
+    assertEquals(state.x, integratedX, 0.005);
+    assertEquals(state.y, integratedY, 0.005);
+  }
+}